@@ -30,25 +30,37 @@ interface LeaveRequest {
   appliedAt: string;
 }
 
+// One page of GET /leave/all; nextCursor is null on the last page
+interface LeaveRequestPage {
+  items: LeaveRequest[];
+  nextCursor: string | null;
+}
+
 const AdminHomepage: React.FC = () => {
   const [leaveRequests, setLeaveRequests] = useState<LeaveRequest[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [loading, setLoading] = useState<boolean>(true);
   const [error, setError] = useState<string>("");
 
-  useEffect(() => {
-    const fetchLeaveRequests = async () => {
-      try {
-        const response = await apiClient.get("/leave/all");
-        setLeaveRequests(response.data);
-      } catch (err: any) {
-        console.error("Error fetching leave requests", err);
-        setError("Failed to load leave requests.");
-      } finally {
-        setLoading(false);
-      }
-    };
+  const fetchLeaveRequests = async (cursor: string | null) => {
+    try {
+      const response = await apiClient.get<LeaveRequestPage>("/leave/all", {
+        params: cursor ? { cursor } : {},
+      });
+      setLeaveRequests((previous) =>
+        cursor ? [...previous, ...response.data.items] : response.data.items
+      );
+      setNextCursor(response.data.nextCursor);
+    } catch (err: any) {
+      console.error("Error fetching leave requests", err);
+      setError("Failed to load leave requests.");
+    } finally {
+      setLoading(false);
+    }
+  };
 
-    fetchLeaveRequests();
+  useEffect(() => {
+    fetchLeaveRequests(null);
   }, []);
 
   return (
@@ -126,6 +138,15 @@ const AdminHomepage: React.FC = () => {
             </Table>
           </TableContainer>
         )}
+        {nextCursor && (
+          <Button
+            variant="outlined"
+            sx={{ mt: 2 }}
+            onClick={() => fetchLeaveRequests(nextCursor)}
+          >
+            Load more
+          </Button>
+        )}
       </Container>
     </Box>
   );
@@ -15,6 +15,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 )
       .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
       .allowedHeaders("*")
+      .exposedHeaders("ETag")                      // lets the frontend send If-None-Match itself when polling
       .allowCredentials(true);
   }
 }
@@ -0,0 +1,81 @@
+package com.example.leavemanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Startup check of the Hikari pool settings when requests run on virtual threads.
+ *
+ * The Tomcat pool used to cap how many requests could wait for a connection at once (200).
+ * With virtual threads there is no such cap: every in-flight request can block on
+ * getConnection(), so the connection pool becomes the real concurrency limit for JDBC. Two
+ * rules keep that safe and are enforced here rather than left to documentation:
+ * - the pool must stay within this instance's share of the database's connections
+ *   (leave.datasource.max-pool-size, i.e. max_connections / instances, minus headroom);
+ *   a bigger pool only moves the queue into Postgres;
+ * - connection-timeout must be short (leave.datasource.max-connection-timeout), so an overloaded
+ *   node fails requests quickly instead of parking thousands of virtual threads for 30s.
+ * The application refuses to start when either rule is broken.
+ */
+@Component
+public class DataSourcePoolGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourcePoolGuard.class);
+
+    // The auto-configured pool, or the primary and replica pools (see ReadReplicaConfig)
+    @Autowired
+    private List<DataSource> dataSources;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${leave.datasource.max-pool-size:50}")
+    private int maxPoolSize;
+
+    @Value("${leave.datasource.max-connection-timeout:5s}")
+    private Duration maxConnectionTimeout;
+
+    @PostConstruct
+    void check() {
+        if (!virtualThreads) {
+            return;
+        }
+        for (DataSource dataSource : dataSources) {
+            // The statement-counting proxy around the pool (see DataSourceProxyConfig)
+            if (dataSource instanceof ProxyDataSource proxy) {
+                dataSource = proxy.getDataSource();
+            }
+            if (dataSource instanceof HikariDataSource hikari) {
+                check(hikari);
+            }
+        }
+    }
+
+    private void check(HikariDataSource hikari) {
+        if (hikari.getMaximumPoolSize() > maxPoolSize) {
+            throw new IllegalStateException("maximum-pool-size=" + hikari.getMaximumPoolSize() + " of pool " + hikari.getPoolName()
+                    + " exceeds leave.datasource.max-pool-size=" + maxPoolSize
+                    + ". With virtual threads the pool is the only limit on concurrent JDBC work; keep it within"
+                    + " this instance's share of the database's max_connections.");
+        }
+        if (hikari.getConnectionTimeout() > maxConnectionTimeout.toMillis()) {
+            throw new IllegalStateException("connection-timeout=" + hikari.getConnectionTimeout() + "ms of pool " + hikari.getPoolName()
+                    + " exceeds leave.datasource.max-connection-timeout=" + maxConnectionTimeout.toMillis()
+                    + "ms. With virtual threads every waiting request holds a connection slot in the queue;"
+                    + " fail fast instead.");
+        }
+
+        log.info("Virtual threads enabled; JDBC concurrency on {} capped at {} connections (timeout {}ms)",
+                hikari.getPoolName(), hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+    }
+}
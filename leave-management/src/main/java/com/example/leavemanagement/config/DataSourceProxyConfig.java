@@ -0,0 +1,36 @@
+package com.example.leavemanagement.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource (the bean named dataSource: the auto-configured pool, or the
+ * replica router from ReadReplicaConfig) in a datasource-proxy that reports every statement to
+ * SqlStatementListener. Replaces spring.jpa.show-sql, which printed each statement without timings.
+ *
+ * The underlying pools stay their own beans (see DataSourcePoolGuard, which unwraps the proxy).
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    // Static, as BeanPostProcessors are created before the other beans of this class
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<SqlStatementListener> sqlStatementListener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(sqlStatementListener.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.leavemanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * Makes Postgres refuse overlapping pending/approved leaves of the same user, with an exclusion
+ * constraint on daterange(start_date, end_date, '[]') backed by its own GiST index (btree_gist
+ * supplies the = on user_id). ddl-auto cannot express it, so it is added on startup when missing.
+ *
+ * LeaveService still looks for an overlap before inserting, so the usual 409 names the conflicting
+ * request; the constraint closes the gap between that check and the INSERT across nodes without
+ * locking the user's row. When it cannot be added (not Postgres, btree_gist not available, existing
+ * overlapping rows), startup logs why and the check alone only protects a single node.
+ */
+@Component
+public class LeaveOverlapConstraint {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveOverlapConstraint.class);
+
+    static final String NAME = "leave_requests_no_overlap";
+
+    // Postgres exclusion_violation
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private static final String ADD_CONSTRAINT =
+            "ALTER TABLE leave_requests ADD CONSTRAINT " + NAME + " EXCLUDE USING gist " +
+            "(user_id WITH =, daterange(start_date, end_date, '[]') WITH &&) " +
+            "WHERE (status IN ('PENDING', 'APPROVED'))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureConstraint() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.info("No overlap exclusion constraint on {}: overlapping leaves are refused within one node only", database);
+            return;
+        }
+        Boolean present = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)", Boolean.class, NAME);
+        if (Boolean.TRUE.equals(present)) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            jdbcTemplate.execute(ADD_CONSTRAINT);
+            log.info("Added exclusion constraint {} on leave_requests", NAME);
+        } catch (DataAccessException e) {
+            log.warn("Could not add exclusion constraint {}, overlapping leaves are refused within one node only: {}",
+                    NAME, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * True if the exception comes from this constraint refusing a row.
+     */
+    public static boolean isViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.leavemanagement.config;
+
+import com.example.leavemanagement.service.LoggingNotificationSender;
+import com.example.leavemanagement.service.NotificationSender;
+import com.example.leavemanagement.service.SmtpNotificationSender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+/**
+ * Picks the NotificationSender the outbox dispatcher delivers to: SMTP when spring.mail.host is
+ * set (Spring Boot then configures the JavaMailSender), otherwise a sender that only logs.
+ * Declare another NotificationSender bean to deliver somewhere else.
+ */
+@Configuration
+public class NotificationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.mail.host")
+    public NotificationSender smtpNotificationSender(JavaMailSender mailSender,
+                                                     @Value("${leave.notifications.from}") String from) {
+        return new SmtpNotificationSender(mailSender, from);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(NotificationSender.class)
+    public NotificationSender loggingNotificationSender() {
+        return new LoggingNotificationSender();
+    }
+}
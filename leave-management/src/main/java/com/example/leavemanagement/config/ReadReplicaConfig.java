@@ -0,0 +1,92 @@
+package com.example.leavemanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primary + read replica, only when leave.datasource.replica.url is set. Without it the
+ * single auto-configured datasource serves everything, as before.
+ *
+ * Read-only transactions (@Transactional(readOnly = true), e.g. the leave list and ledger
+ * reads) go to the replica, subject to ReplicaLagTracker; all other work goes to the primary.
+ * Both pools are Hikari and are checked by DataSourcePoolGuard.
+ */
+@Configuration
+@ConditionalOnProperty(name = "leave.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    @Value("${leave.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${leave.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${leave.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${leave.datasource.replica.maximum-pool-size:20}")
+    private int replicaPoolSize;
+
+    @Value("${leave.datasource.replica.max-lag:5s}")
+    private Duration maxLag;
+
+    @Value("${leave.datasource.replica.read-your-writes-window:5s}")
+    private Duration readYourWritesWindow;
+
+    // 0 when the replica has replayed everything it received (an idle primary writes nothing,
+    // so "time since last replayed transaction" alone would look like growing lag)
+    @Value("${leave.datasource.replica.lag-query:SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END}")
+    private String lagQuery;
+
+    // spring.datasource.* and spring.datasource.hikari.* keep configuring the primary
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(@Qualifier("primaryDataSource") HikariDataSource primary) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(replicaUrl);
+        dataSource.setUsername(replicaUsername);
+        dataSource.setPassword(replicaPassword);
+        dataSource.setMaximumPoolSize(replicaPoolSize);
+        dataSource.setConnectionTimeout(primary.getConnectionTimeout());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagTracker replicaLagTracker(@Qualifier("replicaDataSource") HikariDataSource replica,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagTracker(replica, lagQuery, maxLag, readYourWritesWindow, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") HikariDataSource replica,
+                                 ReplicaLagTracker replicaLagTracker,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, replicaLagTracker, meterRegistry));
+    }
+}
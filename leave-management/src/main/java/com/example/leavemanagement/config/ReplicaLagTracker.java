@@ -0,0 +1,110 @@
+package com.example.leavemanagement.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Decides whether a read-only transaction may use the replica.
+ *
+ * Two reasons to stay on the primary:
+ * - read-your-writes: a principal that committed a write in the last read-your-writes-window
+ *   (e.g. an applyLeave), or whose data someone else just changed (e.g. HR approving their leave,
+ *   see UserChangeVersions), reads from the primary. After a bulk write (accrual, rollover)
+ *   everyone does, for the same window;
+ * - lag: the replica's replay lag, probed on lag-check-cron, is above max-lag or could not be
+ *   measured. Then every read goes to the primary until the next probe says otherwise.
+ *
+ * Metrics: leave.datasource.replica.lag (gauge, ms; -1 when unknown)
+ */
+public class ReplicaLagTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagTracker.class);
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagMillis;
+
+    // Principals with a recent write; entries expire on their own after the window
+    private final Cache<String, Boolean> recentWriters;
+
+    // Until the first probe we do not know the lag, so reads start on the primary
+    private volatile long lagMillis = -1;
+
+    private final long readYourWritesWindowNanos;
+
+    // System.nanoTime() until which every principal reads from the primary, after a bulk write
+    private volatile long everyoneOnPrimaryUntil = System.nanoTime();
+
+    public ReplicaLagTracker(DataSource replica, String lagQuery, Duration maxLag, Duration readYourWritesWindow,
+                             MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLag.toMillis();
+        this.readYourWritesWindowNanos = readYourWritesWindow.toNanos();
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        Gauge.builder("leave.datasource.replica.lag", this, tracker -> tracker.lagMillis)
+                .description("Replica replay lag in milliseconds, -1 when unknown")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Remember that this principal just committed a write.
+     */
+    public void recordWrite(String principal) {
+        if (principal != null) {
+            recentWriters.put(principal, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Remember that every user's data just changed.
+     */
+    public void recordBulkWrite() {
+        everyoneOnPrimaryUntil = System.nanoTime() + readYourWritesWindowNanos;
+    }
+
+    /**
+     * True if a read-only transaction for this principal (null when anonymous) may use the replica.
+     */
+    public boolean canUseReplica(String principal) {
+        long lag = lagMillis;
+        if (lag < 0 || lag > maxLagMillis || System.nanoTime() - everyoneOnPrimaryUntil < 0) {
+            return false;
+        }
+        return principal == null || recentWriters.getIfPresent(principal) == null;
+    }
+
+    @Scheduled(cron = "${leave.datasource.replica.lag-check-cron:*/5 * * * * *}")
+    public void checkLag() {
+        long previous = lagMillis;
+        try {
+            Number lag = replicaJdbcTemplate.queryForObject(lagQuery, Number.class);
+            lagMillis = lag == null ? 0 : lag.longValue();
+        } catch (RuntimeException e) {
+            lagMillis = -1;
+            if (previous >= 0) {
+                log.warn("Replica lag check failed, reading from the primary until it recovers", e);
+            }
+            return;
+        }
+        if (lagMillis > maxLagMillis && previous <= maxLagMillis) {
+            log.warn("Replica is {}ms behind (max {}ms), reading from the primary", lagMillis, maxLagMillis);
+        }
+    }
+
+    long getLagMillis() {
+        return lagMillis;
+    }
+}
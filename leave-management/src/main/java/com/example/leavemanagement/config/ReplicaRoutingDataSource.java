@@ -0,0 +1,77 @@
+package com.example.leavemanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ *
+ * The target is picked when a connection is first needed, so this must sit behind a
+ * LazyConnectionDataSourceProxy: by then the transaction's read-only flag is known (the JPA
+ * transaction manager asks for a connection before it publishes the flag).
+ *
+ * A read-write transaction registers its principal with the ReplicaLagTracker on commit, which
+ * keeps that principal's reads on the primary for a short while (read-your-writes).
+ *
+ * Metrics: leave.datasource.routed tagged target=primary|replica|primary_fallback
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagTracker replicaLagTracker;
+    private final Counter routedPrimary;
+    private final Counter routedReplica;
+    private final Counter routedFallback;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagTracker replicaLagTracker,
+                                    MeterRegistry meterRegistry) {
+        this.replicaLagTracker = replicaLagTracker;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        routedPrimary = meterRegistry.counter("leave.datasource.routed", "target", "primary");
+        routedReplica = meterRegistry.counter("leave.datasource.routed", "target", "replica");
+        routedFallback = meterRegistry.counter("leave.datasource.routed", "target", "primary_fallback");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String principal = currentPrincipal();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Outside a transaction (startup DDL, schedulers) or a write: primary
+            if (principal != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        replicaLagTracker.recordWrite(principal);
+                    }
+                });
+            }
+            routedPrimary.increment();
+            return Target.PRIMARY;
+        }
+
+        if (replicaLagTracker.canUseReplica(principal)) {
+            routedReplica.increment();
+            return Target.REPLICA;
+        }
+        routedFallback.increment();
+        return Target.PRIMARY;
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.leavemanagement.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The SQL one HTTP request ran: how many statements, how long the database took, and how often
+ * each SELECT was repeated (an N+1 shows up as the same SELECT run once per row of an earlier one).
+ *
+ * Bound to the request's thread by SqlStatisticsFilter and filled in by SqlStatementListener.
+ * Work that leaves the request thread (streamed exports, after-commit callbacks on other
+ * threads, schedulers) is not attributed to any request. After the request the statistics are
+ * available as the REQUEST_ATTRIBUTE request attribute, which is what the query-budget tests read.
+ */
+public final class RequestSqlStatistics {
+
+    public static final String REQUEST_ATTRIBUTE = RequestSqlStatistics.class.getName();
+
+    private static final ThreadLocal<RequestSqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statementCount;
+    private long dbTimeMillis;
+    // Keyed by the SQL text, which has ? placeholders, so one entity load per id is one key
+    private final Map<String, Integer> selectCounts = new HashMap<>();
+
+    static RequestSqlStatistics start() {
+        RequestSqlStatistics statistics = new RequestSqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    // Null outside an HTTP request
+    static RequestSqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    // One JDBC execution: a statement, or a whole batch in one round trip
+    void record(Iterable<String> queries, long elapsedMillis) {
+        statementCount++;
+        dbTimeMillis += elapsedMillis;
+        for (String sql : queries) {
+            if (sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+                selectCounts.merge(sql, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * SELECTs run at least {@code threshold} times in this request, with their counts.
+     */
+    Map<String, Integer> repeatedSelects(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        selectCounts.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getDbTimeMillis() {
+        return dbTimeMillis;
+    }
+}
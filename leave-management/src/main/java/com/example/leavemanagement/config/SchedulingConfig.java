@@ -0,0 +1,10 @@
+package com.example.leavemanagement.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Turns on @Scheduled jobs (LeaveAccrualService). Set a job's cron property to "-" to disable it
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,89 @@
+package com.example.leavemanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Sees every statement that goes through the application DataSource (see DataSourceProxyConfig).
+ *
+ * - Adds it to the current request's RequestSqlStatistics, if there is one.
+ * - Logs it when it took at least leave.sql.slow-query-threshold, with the shape of its bind
+ *   parameters (types, string lengths, nulls) but never their values, which are personal data.
+ *
+ * Metrics: leave.sql.slow (counter)
+ */
+@Component
+public class SqlStatementListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementListener.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${leave.sql.slow-query-threshold:200ms}")
+    private Duration slowQueryThreshold;
+
+    private Counter slowQueries;
+
+    @PostConstruct
+    void init() {
+        slowQueries = Counter.builder("leave.sql.slow")
+                .description("Statements slower than leave.sql.slow-query-threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestSqlStatistics statistics = RequestSqlStatistics.current();
+        if (statistics != null) {
+            statistics.record(queryInfoList.stream().map(QueryInfo::getQuery)::iterator, execInfo.getElapsedTime());
+        }
+
+        if (execInfo.getElapsedTime() >= slowQueryThreshold.toMillis()) {
+            slowQueries.increment();
+            for (QueryInfo query : queryInfoList) {
+                log.warn("Slow query ({}ms{}): {} params {}", execInfo.getElapsedTime(),
+                        execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "",
+                        query.getQuery(), parameterShape(query));
+            }
+        }
+    }
+
+    // e.g. [Long, String(24), null]; for a batch, the first parameter set
+    static String parameterShape(QueryInfo query) {
+        if (query.getParametersList().isEmpty()) {
+            return "[]";
+        }
+        StringJoiner shape = new StringJoiner(", ", "[", "]");
+        for (ParameterSetOperation parameter : query.getParametersList().get(0)) {
+            Object[] args = parameter.getArgs();
+            Object value = args.length > 1 ? args[1] : null;
+            if (ParameterSetOperation.isSetNullParameterOperation(parameter) || value == null) {
+                shape.add("null");
+            } else if (value instanceof CharSequence text) {
+                shape.add("String(" + text.length() + ")");
+            } else {
+                shape.add(value.getClass().getSimpleName());
+            }
+        }
+        return shape.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.leavemanagement.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects RequestSqlStatistics for each HTTP request and reports them per endpoint.
+ * Runs outside Spring Security, so the user lookups of the JWT filter count too.
+ *
+ * A SELECT repeated leave.sql.n-plus-one-threshold times or more in one request is logged as a
+ * likely N+1 (typically a lazy association touched in a loop).
+ *
+ * Metrics, tagged method and uri (the matched pattern, e.g. /api/leave/cancel/{id}):
+ * leave.sql.statements (statements per request), leave.sql.time (database time per request),
+ * leave.sql.n_plus_one (requests with a repeated SELECT)
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatisticsFilter.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${leave.sql.n-plus-one-threshold:5}")
+    private int nPlusOneThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlStatistics statistics = RequestSqlStatistics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlStatistics.end();
+            request.setAttribute(RequestSqlStatistics.REQUEST_ATTRIBUTE, statistics);
+            report(request, statistics);
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestSqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Unmatched paths (404s, static resources) would make one time series per URL
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("leave.sql.statements")
+                .description("SQL statements per HTTP request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getStatementCount());
+        Timer.builder("leave.sql.time")
+                .description("Database time per HTTP request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getDbTimeMillis(), TimeUnit.MILLISECONDS);
+
+        statistics.repeatedSelects(nPlusOneThreshold).forEach((sql, count) -> {
+            meterRegistry.counter("leave.sql.n_plus_one", "method", method, "uri", uri).increment();
+            log.warn("Possible N+1 in {} {}: {} executions of {}", method, uri, count, sql);
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.leavemanagement.controller;
+
+import com.example.leavemanagement.dto.leave.LeaveRolloverResultDto;
+import com.example.leavemanagement.dto.request.RoleUpdateRequest;
+import com.example.leavemanagement.dto.response.ApiResponse;
+import com.example.leavemanagement.service.AuthService;
+import com.example.leavemanagement.service.YearEndRolloverService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+// HR operations that act on every user at once. /api/admin/** is admin-only in SecurityConfig as well
+@RestController
+@CrossOrigin(origins = "http://localhost:3000")
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private YearEndRolloverService yearEndRolloverService;
+
+    @Autowired
+    private AuthService authService;
+
+    /**
+     * Close a fiscal year: apply carry-over caps and the yearly grants to every balance.
+     * Endpoint: POST /api/admin/rollover?year=2025&dryRun=true
+     * Defaults to a dry run; the response points at the before/after CSV report.
+     */
+    @PostMapping("/rollover")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LeaveRolloverResultDto> rollover(
+            @RequestParam int year,
+            @RequestParam(defaultValue = "true") boolean dryRun) {
+        LeaveRolloverResultDto result = yearEndRolloverService.rollover(year, dryRun);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Change a user's role.
+     * Endpoint: PUT /api/admin/users/role with {"email": "...", "role": "ADMIN"}
+     */
+    @PutMapping("/users/role")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse> updateRole(@Valid @RequestBody RoleUpdateRequest roleUpdateRequest) {
+        ApiResponse response = authService.updateRole(roleUpdateRequest);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Revoke every token a user currently holds (lost laptop, leaver, ...).
+     * Endpoint: POST /api/admin/users/sign-out?email=john.doe@company.com
+     */
+    @PostMapping("/users/sign-out")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse> signOutEverywhere(@RequestParam String email) {
+        ApiResponse response = authService.signOutEverywhere(email);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.leavemanagement.controller;
 
+import com.example.leavemanagement.dto.request.ChangePasswordRequest;
 import com.example.leavemanagement.dto.request.LoginRequest;
 import com.example.leavemanagement.dto.request.SignupRequest;
 import com.example.leavemanagement.dto.response.ApiResponse;
@@ -7,8 +8,14 @@ import com.example.leavemanagement.dto.response.JwtResponse;
 import com.example.leavemanagement.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -38,4 +45,34 @@ public class AuthController {
         JwtResponse jwtResponse = authService.authenticateUser(loginRequest);
         return ResponseEntity.ok(jwtResponse);
     }
+
+    /**
+     * Revoke the token in the jwt cookie and clear the cookie
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse> logout(@CookieValue(name = "jwt", required = false) String jwt) {
+        ApiResponse apiResponse = authService.logout(jwt);
+
+        ResponseCookie expired = ResponseCookie.from("jwt", "").path("/").maxAge(0).build();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, expired.toString())
+                .body(apiResponse);
+    }
+
+    /**
+     * Change my password (requires a logged-in user, see SecurityConfig)
+     */
+    @PutMapping("/password")
+    public ResponseEntity<ApiResponse> changePassword(@Valid @RequestBody ChangePasswordRequest changePasswordRequest) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String currentUserEmail = authentication.getName();
+
+        ApiResponse apiResponse = authService.changePassword(currentUserEmail, changePasswordRequest);
+
+        if (apiResponse.getSuccess()) {
+            return ResponseEntity.ok(apiResponse);
+        } else {
+            return ResponseEntity.badRequest().body(apiResponse);
+        }
+    }
 }
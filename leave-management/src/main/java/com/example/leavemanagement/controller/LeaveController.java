@@ -1,14 +1,27 @@
 package com.example.leavemanagement.controller;
 
+import com.example.leavemanagement.dto.leave.LeaveExportFormat;
 import com.example.leavemanagement.dto.leave.LeaveRequestDto;
+import com.example.leavemanagement.dto.leave.LeaveRequestFilterDto;
+import com.example.leavemanagement.dto.leave.LeaveRequestPageDto;
 import com.example.leavemanagement.dto.leave.LeaveResponseDto;
 import com.example.leavemanagement.dto.leave.RejectionRequestDto;
 import com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto;
 import com.example.leavemanagement.dto.leave.LeaveBalanceUpdateDto;
 import com.example.leavemanagement.dto.response.ApiResponse;
+import com.example.leavemanagement.service.LeaveEventHub;
+import com.example.leavemanagement.service.LeaveExportService;
 import com.example.leavemanagement.service.LeaveService;
+import com.example.leavemanagement.service.UserChangeVersions;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -16,7 +29,12 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -27,6 +45,21 @@ public class LeaveController {
     @Autowired
     private LeaveService leaveService;
 
+    @Autowired
+    private LeaveExportService leaveExportService;
+
+    @Autowired
+    private UserChangeVersions userChangeVersions;
+
+    @Autowired
+    private LeaveEventHub leaveEventHub;
+
+    @Value("${leave.export.timeout:30m}")
+    private Duration exportTimeout;
+
+    // Polled responses: the browser keeps them but must revalidate with the ETag every time
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     /**
      * Apply for leave
      */
@@ -40,15 +73,40 @@ public class LeaveController {
     }
 
     /**
-     * Get my leave requests
+     * Get my leave requests. Answers 304 when If-None-Match still matches (see UserChangeVersions)
      */
     @GetMapping("/my-requests")
-    public ResponseEntity<List<LeaveResponseDto>> getMyLeaveRequests() {
+    public ResponseEntity<List<LeaveResponseDto>> getMyLeaveRequests(WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUserEmail = authentication.getName();
-        
+
+        // Version first, then the data: the ETag may be older than the body, never newer
+        String etag = userChangeVersions.etag(currentUserEmail);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+
         List<LeaveResponseDto> leaveRequests = leaveService.getMyLeaveRequests(currentUserEmail);
-        return ResponseEntity.ok(leaveRequests);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(leaveRequests);
+    }
+
+    /**
+     * Server-Sent Events for my leaves: a "leave-status" event when HR approves or rejects one.
+     * Open with new EventSource("/api/leave/events", {withCredentials: true}); it reconnects on its own
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMyLeaveEvents() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return leaveEventHub.subscribeUser(authentication.getName());
+    }
+
+    /**
+     * Server-Sent Events for HR: a "leave-applied" event with every new leave application
+     */
+    @GetMapping(value = "/events/all", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamLeaveApplications() {
+        return leaveEventHub.subscribeAdmin();
     }
 
     /**
@@ -69,13 +127,44 @@ public class LeaveController {
     }
 
     /**
-     * Get all leave requests (admin only)
+     * Get all leave requests (admin only), one page at a time.
+     * Optional filters: status, leaveType, userEmail, from, to (ISO dates).
+     * Pass the returned nextCursor back as ?cursor= to fetch the next page.
      */
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<LeaveResponseDto>> getAllLeaveRequests() {
-        List<LeaveResponseDto> leaveRequests = leaveService.getAllLeaveRequests();
-        return ResponseEntity.ok(leaveRequests);
+    public ResponseEntity<LeaveRequestPageDto> getAllLeaveRequests(
+            @ModelAttribute LeaveRequestFilterDto filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        LeaveRequestPageDto page = leaveService.getAllLeaveRequests(filter, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Export leave requests (admin only) as NDJSON (default) or CSV.
+     * Endpoint: GET /api/leave/export?format=csv&status=APPROVED&from=2025-01-01&to=2025-12-31
+     * The body is streamed while the query is still running, so there is no upper bound on rows.
+     */
+    // Written on an async task with its own timeout (leave.export.timeout): a big export outlives the
+    // container's default async timeout, which every other async request keeps
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public WebAsyncTask<Void> exportLeaveRequests(
+            @ModelAttribute LeaveRequestFilterDto filter,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) {
+        LeaveExportFormat exportFormat = LeaveExportFormat.fromParameter(format);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(exportFormat.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"leave-requests." + exportFormat.getFileExtension() + "\"");
+
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            leaveExportService.exportLeaveRequests(filter, exportFormat, response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
     }
 
     /**
@@ -104,7 +193,7 @@ public class LeaveController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse> rejectLeaveRequest(
             @PathVariable Long id,
-            @RequestBody(required = false) RejectionRequestDto rejectionRequest) {
+            @Valid @RequestBody(required = false) RejectionRequestDto rejectionRequest) {
         String reason = (rejectionRequest != null) ? rejectionRequest.getReason() : null;
         ApiResponse response = leaveService.rejectLeaveRequest(id, reason);
         if (response.getSuccess()) {
@@ -113,13 +202,29 @@ public class LeaveController {
             return ResponseEntity.badRequest().body(response);
         }
     }
+    /**
+     * Get my leave balance, or with ?asOf=2025-06-30 the balance at the end of that day.
+     * The current balance answers 304 when If-None-Match still matches (see UserChangeVersions)
+     */
     @GetMapping("/balance")
-    public ResponseEntity<LeaveBalanceResponseDto> getLeaveBalance() {
+    public ResponseEntity<LeaveBalanceResponseDto> getLeaveBalance(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUserEmail = authentication.getName();
-        
+
+        // Historical balances are not polled; no ETag for those
+        if (asOf != null) {
+            return ResponseEntity.ok(leaveService.getLeaveBalanceAsOf(currentUserEmail, asOf));
+        }
+
+        String etag = userChangeVersions.etag(currentUserEmail);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+
         LeaveBalanceResponseDto balanceResponseDto = leaveService.getLeaveBalance(currentUserEmail);
-        return ResponseEntity.ok(balanceResponseDto);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(balanceResponseDto);
     }
 
     /**
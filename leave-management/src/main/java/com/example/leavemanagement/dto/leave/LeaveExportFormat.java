@@ -0,0 +1,35 @@
+package com.example.leavemanagement.dto.leave;
+
+import org.springframework.http.MediaType;
+
+// Output formats supported by GET /api/leave/export
+public enum LeaveExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    LeaveExportFormat(String mediaType, String fileExtension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    // Query parameters come in lower case (?format=csv), so match case-insensitively
+    public static LeaveExportFormat fromParameter(String value) {
+        for (LeaveExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + value);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.leavemanagement.dto.leave;
+
+import com.example.leavemanagement.model.LeaveStatus;
+import com.example.leavemanagement.model.LeaveType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Optional server-side filters for the admin leave listing, bound from query parameters.
+// A null field means "no filter" for that column.
+public class LeaveRequestFilterDto {
+    private LeaveStatus status;
+    private LeaveType leaveType;
+    private String userEmail;
+
+    // Leave requests whose [startDate, endDate] overlaps [from, to] are returned
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    // Constructors
+    public LeaveRequestFilterDto() {}
+
+    public LeaveRequestFilterDto(LeaveStatus status, LeaveType leaveType, String userEmail,
+                                 LocalDate from, LocalDate to) {
+        this.status = status;
+        this.leaveType = leaveType;
+        this.userEmail = userEmail;
+        this.from = from;
+        this.to = to;
+    }
+
+    // Getters and Setters
+    public LeaveStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(LeaveStatus status) {
+        this.status = status;
+    }
+
+    public LeaveType getLeaveType() {
+        return leaveType;
+    }
+
+    public void setLeaveType(LeaveType leaveType) {
+        this.leaveType = leaveType;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.leavemanagement.dto.leave;
+
+import java.util.List;
+
+// One page of the admin leave listing.
+// nextCursor is an opaque token to pass back as ?cursor= for the following page, null on the last page.
+public class LeaveRequestPageDto {
+    private List<LeaveResponseDto> items;
+    private String nextCursor;
+
+    // Constructors
+    public LeaveRequestPageDto() {}
+
+    public LeaveRequestPageDto(List<LeaveResponseDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<LeaveResponseDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<LeaveResponseDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.leavemanagement.dto.leave;
+
+// Outcome of a year-end rollover. In a dry run nothing was committed, but usersAffected and the
+// report show exactly what a real run would have done at that moment.
+public class LeaveRolloverResultDto {
+    private int fiscalYear;
+    private boolean dryRun;
+    private int usersAffected;
+    private String reportPath;
+
+    // Constructors
+    public LeaveRolloverResultDto() {}
+
+    public LeaveRolloverResultDto(int fiscalYear, boolean dryRun, int usersAffected, String reportPath) {
+        this.fiscalYear = fiscalYear;
+        this.dryRun = dryRun;
+        this.usersAffected = usersAffected;
+        this.reportPath = reportPath;
+    }
+
+    // Getters and Setters
+    public int getFiscalYear() {
+        return fiscalYear;
+    }
+
+    public void setFiscalYear(int fiscalYear) {
+        this.fiscalYear = fiscalYear;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public int getUsersAffected() {
+        return usersAffected;
+    }
+
+    public void setUsersAffected(int usersAffected) {
+        this.usersAffected = usersAffected;
+    }
+
+    public String getReportPath() {
+        return reportPath;
+    }
+
+    public void setReportPath(String reportPath) {
+        this.reportPath = reportPath;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.leavemanagement.dto.leave;
+
+import com.example.leavemanagement.model.LeaveStatus;
+import com.example.leavemanagement.model.LeaveType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Pushed to the employee on GET /api/leave/events when HR approves or rejects one of their leaves
+public class LeaveStatusEventDto {
+    private Long leaveId;
+    private LeaveStatus status;
+    private LeaveType leaveType;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalDateTime changedAt;
+
+    // Constructors
+    public LeaveStatusEventDto() {}
+
+    public LeaveStatusEventDto(Long leaveId, LeaveStatus status, LeaveType leaveType,
+                               LocalDate startDate, LocalDate endDate, LocalDateTime changedAt) {
+        this.leaveId = leaveId;
+        this.status = status;
+        this.leaveType = leaveType;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.changedAt = changedAt;
+    }
+
+    // Getters and Setters
+    public Long getLeaveId() {
+        return leaveId;
+    }
+
+    public void setLeaveId(Long leaveId) {
+        this.leaveId = leaveId;
+    }
+
+    public LeaveStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(LeaveStatus status) {
+        this.status = status;
+    }
+
+    public LeaveType getLeaveType() {
+        return leaveType;
+    }
+
+    public void setLeaveType(LeaveType leaveType) {
+        this.leaveType = leaveType;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
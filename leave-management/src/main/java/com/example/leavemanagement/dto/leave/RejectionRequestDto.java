@@ -1,6 +1,11 @@
 package com.example.leavemanagement.dto.leave;
 
+import jakarta.validation.constraints.Size;
+
 public class RejectionRequestDto {
+
+    // Quoted in the mail to the employee
+    @Size(max = 1000, message = "Reason must be at most 1000 characters")
     private String reason;
     
     // Constructors
@@ -0,0 +1,42 @@
+package com.example.leavemanagement.dto.request;
+
+import com.example.leavemanagement.model.Role;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public class RoleUpdateRequest {
+
+    @NotBlank(message = "Email is required")
+    @Email(message = "Invalid email format")
+    private String email;
+
+    @NotNull(message = "Role is required")
+    private Role role;
+
+    // Default constructor
+    public RoleUpdateRequest() {}
+
+    // All-args constructor
+    public RoleUpdateRequest(String email, Role role) {
+        this.email = email;
+        this.role = role;
+    }
+
+    // Getters and setters
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public void setRole(Role role) {
+        this.role = role;
+    }
+}
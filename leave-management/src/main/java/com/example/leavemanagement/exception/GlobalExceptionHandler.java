@@ -1,6 +1,7 @@
 package com.example.leavemanagement.exception;
 
 import com.example.leavemanagement.dto.response.ApiResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -58,6 +59,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiResponse);
     }
     
+    @ExceptionHandler(OverlappingLeaveException.class)
+    public ResponseEntity<ApiResponse> handleOverlappingLeaveException(OverlappingLeaveException ex) {
+        ApiResponse apiResponse = new ApiResponse(false, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(apiResponse);
+    }
+
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<ApiResponse> handleConcurrentUpdateException(ConcurrentUpdateException ex) {
+        ApiResponse apiResponse = new ApiResponse(false, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(apiResponse);
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ApiResponse> handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+        ApiResponse apiResponse = new ApiResponse(false, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(apiResponse);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
         ApiResponse apiResponse = new ApiResponse(false, ex.getMessage());
@@ -0,0 +1,127 @@
+package com.example.leavemanagement.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One row per accrued month: the checkpoint LeaveAccrualService resumes from after a crash,
+// and the lease that lets only one node work on the month at a time
+@Entity
+@Table(name = "accrual_runs")
+public class AccrualRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // First day of the month being credited
+    @Column(name = "accrual_month", nullable = false, unique = true)
+    private LocalDate month;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AccrualRunStatus status;
+
+    // Every user with an id up to this one has been processed
+    @Column(name = "last_user_id", nullable = false)
+    private long lastUserId;
+
+    @Column(name = "users_credited", nullable = false)
+    private long usersCredited;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Held by the node running the month until this time; renewed at every checkpoint
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    // A checkpoint from a node whose lease was taken over fails instead of overwriting the new owner's
+    @Version
+    private long version;
+
+    // Constructors
+    public AccrualRun() {}
+
+    public AccrualRun(LocalDate month) {
+        this.month = month;
+        this.status = AccrualRunStatus.RUNNING;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getMonth() {
+        return month;
+    }
+
+    public void setMonth(LocalDate month) {
+        this.month = month;
+    }
+
+    public AccrualRunStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AccrualRunStatus status) {
+        this.status = status;
+    }
+
+    public long getLastUserId() {
+        return lastUserId;
+    }
+
+    public void setLastUserId(long lastUserId) {
+        this.lastUserId = lastUserId;
+    }
+
+    public long getUsersCredited() {
+        return usersCredited;
+    }
+
+    public void setUsersCredited(long usersCredited) {
+        this.usersCredited = usersCredited;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
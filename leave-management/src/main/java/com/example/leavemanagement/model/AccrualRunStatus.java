@@ -0,0 +1,6 @@
+package com.example.leavemanagement.model;
+
+public enum AccrualRunStatus {
+    RUNNING,
+    COMPLETED
+}
@@ -0,0 +1,96 @@
+package com.example.leavemanagement.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A user's balances folded up to (and including) ledger entry lastEntryId,
+// so a balance read only has to add the entries after it
+@Entity
+@Table(name = "leave_balance_snapshots", indexes = {
+        @Index(name = "idx_leave_balance_snapshots_user_id_entry", columnList = "user_id, last_entry_id")
+})
+public class LeaveBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "annual_leave_balance", nullable = false)
+    private int annualLeaveBalance;
+
+    @Column(name = "sick_leave_balance", nullable = false)
+    private int sickLeaveBalance;
+
+    @Column(name = "casual_leave_balance", nullable = false)
+    private int casualLeaveBalance;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private long lastEntryId;
+
+    // Every folded entry was created before this instant, so the snapshot can answer as-of queries from here on
+    @Column(name = "covers_until", nullable = false)
+    private LocalDateTime coversUntil;
+
+    // Constructors
+    public LeaveBalanceSnapshot() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public int getAnnualLeaveBalance() {
+        return annualLeaveBalance;
+    }
+
+    public void setAnnualLeaveBalance(int annualLeaveBalance) {
+        this.annualLeaveBalance = annualLeaveBalance;
+    }
+
+    public int getSickLeaveBalance() {
+        return sickLeaveBalance;
+    }
+
+    public void setSickLeaveBalance(int sickLeaveBalance) {
+        this.sickLeaveBalance = sickLeaveBalance;
+    }
+
+    public int getCasualLeaveBalance() {
+        return casualLeaveBalance;
+    }
+
+    public void setCasualLeaveBalance(int casualLeaveBalance) {
+        this.casualLeaveBalance = casualLeaveBalance;
+    }
+
+    public long getLastEntryId() {
+        return lastEntryId;
+    }
+
+    public void setLastEntryId(long lastEntryId) {
+        this.lastEntryId = lastEntryId;
+    }
+
+    public LocalDateTime getCoversUntil() {
+        return coversUntil;
+    }
+
+    public void setCoversUntil(LocalDateTime coversUntil) {
+        this.coversUntil = coversUntil;
+    }
+}
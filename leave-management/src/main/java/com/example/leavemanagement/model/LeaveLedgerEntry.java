@@ -0,0 +1,115 @@
+package com.example.leavemanagement.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One change to one balance of one user. Rows are only ever inserted, never updated or deleted.
+@Entity
+@Table(name = "leave_ledger", indexes = {
+        // Tail reads: a user's entries after their latest snapshot
+        @Index(name = "idx_leave_ledger_user_id_id", columnList = "user_id, id")
+})
+public class LeaveLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain id rather than a relation: appending must not load or lock the User row
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false)
+    private LeaveType leaveType;
+
+    // Days added (positive) or taken (negative)
+    @Column(nullable = false)
+    private int delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false)
+    private LedgerEntryType entryType;
+
+    // Set for LEAVE_APPLIED / LEAVE_CANCELLED
+    @Column(name = "leave_request_id")
+    private Long leaveRequestId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    // Constructors
+    public LeaveLedgerEntry() {}
+
+    public LeaveLedgerEntry(Long userId, LeaveType leaveType, int delta, LedgerEntryType entryType, Long leaveRequestId) {
+        this.userId = userId;
+        this.leaveType = leaveType;
+        this.delta = delta;
+        this.entryType = entryType;
+        this.leaveRequestId = leaveRequestId;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LeaveType getLeaveType() {
+        return leaveType;
+    }
+
+    public void setLeaveType(LeaveType leaveType) {
+        this.leaveType = leaveType;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public void setDelta(int delta) {
+        this.delta = delta;
+    }
+
+    public LedgerEntryType getEntryType() {
+        return entryType;
+    }
+
+    public void setEntryType(LedgerEntryType entryType) {
+        this.entryType = entryType;
+    }
+
+    public Long getLeaveRequestId() {
+        return leaveRequestId;
+    }
+
+    public void setLeaveRequestId(Long leaveRequestId) {
+        this.leaveRequestId = leaveRequestId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -5,14 +5,21 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "leave_requests")
+@Table(name = "leave_requests", indexes = {
+        // Backs the keyset pagination of the admin listing (ORDER BY applied_at DESC, id DESC)
+        @Index(name = "idx_leave_requests_applied_at_id", columnList = "applied_at, id"),
+        // Overlap checks: a user's leaves ending on or after a given day
+        @Index(name = "idx_leave_requests_user_id_end_date", columnList = "user_id, end_date")
+})
 public class LeaveRequest {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // LAZY: list endpoints read user columns through DTO projections, so the full User row
+    // (password hash, balances) is only loaded when a write path actually needs it
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -36,6 +43,11 @@ public class LeaveRequest {
     @Column(name = "applied_at", nullable = false)
     private LocalDateTime appliedAt;
 
+    // Working days charged against the balance when the leave was applied, so a cancellation refunds
+    // exactly that even if the holiday calendar changes in between. Null on rows from before this column.
+    @Column(name = "working_days")
+    private Integer workingDays;
+
     @PrePersist
     protected void onCreate() {
         appliedAt = LocalDateTime.now();
@@ -121,4 +133,12 @@ public class LeaveRequest {
     public void setAppliedAt(LocalDateTime appliedAt) {
         this.appliedAt = appliedAt;
     }
+
+    public Integer getWorkingDays() {
+        return workingDays;
+    }
+
+    public void setWorkingDays(Integer workingDays) {
+        this.workingDays = workingDays;
+    }
 }
@@ -0,0 +1,11 @@
+package com.example.leavemanagement.model;
+
+// Why a leave balance changed - one value per code path that writes to the ledger
+public enum LedgerEntryType {
+    OPENING,
+    LEAVE_APPLIED,
+    LEAVE_CANCELLED,
+    ACCRUAL,
+    ROLLOVER,
+    ADJUSTMENT
+}
@@ -0,0 +1,8 @@
+package com.example.leavemanagement.model;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    // Gave up after leave.outbox.max-attempts; kept for inspection, never retried automatically
+    DEAD
+}
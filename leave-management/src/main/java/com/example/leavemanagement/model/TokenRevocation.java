@@ -0,0 +1,80 @@
+package com.example.leavemanagement.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// One revoked JWT (jti set) or a forced sign-out of every token a user got before notBefore (jti null).
+// Rows are only useful until expiresAt: by then every token they could match has expired anyway.
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_expires_at", columnList = "expires_at")
+})
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "jti", unique = true)
+    private String jti;
+
+    @Column(name = "email", nullable = false)
+    private String email;
+
+    @Column(name = "not_before")
+    private Instant notBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Constructors
+    public TokenRevocation() {}
+
+    public TokenRevocation(String jti, String email, Instant notBefore, Instant expiresAt) {
+        this.jti = jti;
+        this.email = email;
+        this.notBefore = notBefore;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Instant getNotBefore() {
+        return notBefore;
+    }
+
+    public void setNotBefore(Instant notBefore) {
+        this.notBefore = notBefore;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
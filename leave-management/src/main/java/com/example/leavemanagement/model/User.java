@@ -1,6 +1,9 @@
 package com.example.leavemanagement.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
@@ -33,6 +36,22 @@ public class User {
     @Column(name = "casual_leave_balance", nullable = false)
     private int casualLeaveBalance = 5; // Default 5 days
 
+    // Optimistic lock: every balance change bumps this, so a read-modify-write based on a stale
+    // copy fails instead of silently overwriting someone else's update.
+    // The DB default lets ddl-auto add the column to existing rows.
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // First day of the last month LeaveAccrualService credited, so a re-run never credits a month twice
+    @Column(name = "last_accrual_month")
+    private LocalDate lastAccrualMonth;
+
+    // Last fiscal year YearEndRolloverService closed for this user, so a year is never rolled over twice
+    @Column(name = "last_rollover_year")
+    private Integer lastRolloverYear;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -128,4 +147,28 @@ public class User {
     public void setCasualLeaveBalance(int casualLeaveBalance) {
         this.casualLeaveBalance = casualLeaveBalance;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDate getLastAccrualMonth() {
+        return lastAccrualMonth;
+    }
+
+    public void setLastAccrualMonth(LocalDate lastAccrualMonth) {
+        this.lastAccrualMonth = lastAccrualMonth;
+    }
+
+    public Integer getLastRolloverYear() {
+        return lastRolloverYear;
+    }
+
+    public void setLastRolloverYear(Integer lastRolloverYear) {
+        this.lastRolloverYear = lastRolloverYear;
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.leavemanagement.repository;
+
+import com.example.leavemanagement.model.AccrualRun;
+import com.example.leavemanagement.model.AccrualRunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccrualRunRepository extends JpaRepository<AccrualRun, Long> {
+    Optional<AccrualRun> findByMonth(LocalDate month);
+
+    List<AccrualRun> findByStatus(AccrualRunStatus status);
+
+    boolean existsByStatusAndMonthAfter(AccrualRunStatus status, LocalDate month);
+
+    // Takes the lease on a RUNNING month unless another node holds one that has not expired.
+    // Returns 1 when this caller got it
+    @Transactional
+    @Modifying
+    @Query("UPDATE AccrualRun r SET r.leaseUntil = :until, r.version = r.version + 1 " +
+            "WHERE r.id = :id AND r.status = :running AND (r.leaseUntil IS NULL OR r.leaseUntil < :now)")
+    int claimLease(@Param("id") Long id, @Param("running") AccrualRunStatus running,
+                   @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+}
@@ -0,0 +1,15 @@
+package com.example.leavemanagement.repository;
+
+import com.example.leavemanagement.model.LeaveBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface LeaveBalanceSnapshotRepository extends JpaRepository<LeaveBalanceSnapshot, Long> {
+    // Latest snapshot usable for a balance as of the given instant
+    Optional<LeaveBalanceSnapshot> findFirstByUserIdAndCoversUntilLessThanEqualOrderByLastEntryIdDesc(
+            Long userId, LocalDateTime coversUntil);
+}
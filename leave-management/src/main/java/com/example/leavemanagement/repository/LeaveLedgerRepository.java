@@ -0,0 +1,24 @@
+package com.example.leavemanagement.repository;
+
+import com.example.leavemanagement.model.LeaveLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LeaveLedgerRepository extends JpaRepository<LeaveLedgerEntry, Long> {
+
+    // The tail after a snapshot, summed per leave type: rows of [LeaveType, Long sum]
+    @Query("SELECT e.leaveType, SUM(e.delta) FROM LeaveLedgerEntry e " +
+            "WHERE e.userId = :userId AND e.id > :afterEntryId AND e.createdAt < :before " +
+            "GROUP BY e.leaveType")
+    List<Object[]> sumDeltasAfter(@Param("userId") Long userId,
+                                  @Param("afterEntryId") long afterEntryId,
+                                  @Param("before") LocalDateTime before);
+
+    List<LeaveLedgerEntry> findByUserIdOrderByIdAsc(Long userId);
+}
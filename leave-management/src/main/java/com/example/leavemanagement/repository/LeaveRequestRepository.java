@@ -1,19 +1,101 @@
 package com.example.leavemanagement.repository;
 
+import com.example.leavemanagement.dto.leave.LeaveResponseDto;
 import com.example.leavemanagement.model.LeaveRequest;
 import com.example.leavemanagement.model.LeaveStatus;
+import com.example.leavemanagement.model.LeaveType;
 import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.service.LeaveInterval;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 //By extending JpaRepository, the interface inherits methods for standard CRUD operations
 // (such as saving, deleting, finding by ID, etc.).
 // and we use this functions in our service layer to interact with the database.
 @Repository
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long> {
     List<LeaveRequest> findByUser(User user);
-    List<LeaveRequest> findByUserOrderByAppliedAtDesc(User user);
     List<LeaveRequest> findByUserAndStatus(User user, LeaveStatus status);
-    List<LeaveRequest> findAllByOrderByAppliedAtDesc();
+
+    // The overlap check before an apply (inclusive on both ends), on idx_leave_requests_user_id_end_date.
+    // On Postgres the exclusion constraint (see LeaveOverlapConstraint) backs it up
+    @Query("SELECT new com.example.leavemanagement.service.LeaveInterval(lr.id, lr.startDate, lr.endDate) " +
+            "FROM LeaveRequest lr " +
+            "WHERE lr.user.id = :userId AND lr.status IN :statuses AND lr.endDate >= :start AND lr.startDate <= :end " +
+            "ORDER BY lr.startDate")
+    List<LeaveInterval> findOverlappingIntervals(@Param("userId") Long userId,
+                                                 @Param("statuses") Collection<LeaveStatus> statuses,
+                                                 @Param("start") LocalDate start,
+                                                 @Param("end") LocalDate end,
+                                                 Limit limit);
+
+    // Compare-and-set on the status column: only moves the row if it is still in the expected state.
+    // Returns 0 when another request got there first (e.g. approve racing a cancel).
+    @Modifying
+    @Query("UPDATE LeaveRequest lr SET lr.status = :to WHERE lr.id = :id AND lr.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") LeaveStatus from, @Param("to") LeaveStatus to);
+
+    // Keyset page over (appliedAt DESC, id DESC): rows strictly after the cursor, never an OFFSET scan.
+    // Every filter is optional - passing null disables it. Pass both cursor values as null for the first page.
+    // Projects straight into the response DTO, so a page is exactly one SQL statement.
+    @Query("SELECT new com.example.leavemanagement.dto.leave.LeaveResponseDto(" +
+            "lr.id, u.name, u.email, lr.startDate, lr.endDate, lr.reason, lr.leaveType, lr.status, lr.appliedAt) " +
+            "FROM LeaveRequest lr JOIN lr.user u " +
+            "WHERE (:status IS NULL OR lr.status = :status) " +
+            "AND (:leaveType IS NULL OR lr.leaveType = :leaveType) " +
+            "AND (:userEmail IS NULL OR u.email = :userEmail) " +
+            "AND (:fromDate IS NULL OR lr.endDate >= :fromDate) " +
+            "AND (:toDate IS NULL OR lr.startDate <= :toDate) " +
+            "AND (:cursorAppliedAt IS NULL OR lr.appliedAt < :cursorAppliedAt " +
+            "     OR (lr.appliedAt = :cursorAppliedAt AND lr.id < :cursorId)) " +
+            "ORDER BY lr.appliedAt DESC, lr.id DESC")
+    List<LeaveResponseDto> findPage(@Param("status") LeaveStatus status,
+                                    @Param("leaveType") LeaveType leaveType,
+                                    @Param("userEmail") String userEmail,
+                                    @Param("fromDate") LocalDate fromDate,
+                                    @Param("toDate") LocalDate toDate,
+                                    @Param("cursorAppliedAt") LocalDateTime cursorAppliedAt,
+                                    @Param("cursorId") Long cursorId,
+                                    Limit limit);
+
+    // "My requests" in one statement: joins on the email from the JWT instead of loading the User first
+    @Query("SELECT new com.example.leavemanagement.dto.leave.LeaveResponseDto(" +
+            "lr.id, u.name, u.email, lr.startDate, lr.endDate, lr.reason, lr.leaveType, lr.status, lr.appliedAt) " +
+            "FROM LeaveRequest lr JOIN lr.user u " +
+            "WHERE u.email = :email " +
+            "ORDER BY lr.appliedAt DESC, lr.id DESC")
+    List<LeaveResponseDto> findResponsesByUserEmail(@Param("email") String email);
+
+    // Export cursor: rows are projected straight into DTOs (nothing enters the persistence context)
+    // and pulled from the driver EXPORT_FETCH_SIZE at a time. Must be consumed inside a read-only transaction,
+    // otherwise the Postgres driver ignores the fetch size and buffers the whole result.
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.example.leavemanagement.dto.leave.LeaveResponseDto(" +
+            "lr.id, u.name, u.email, lr.startDate, lr.endDate, lr.reason, lr.leaveType, lr.status, lr.appliedAt) " +
+            "FROM LeaveRequest lr JOIN lr.user u " +
+            "WHERE (:status IS NULL OR lr.status = :status) " +
+            "AND (:leaveType IS NULL OR lr.leaveType = :leaveType) " +
+            "AND (:userEmail IS NULL OR u.email = :userEmail) " +
+            "AND (:fromDate IS NULL OR lr.endDate >= :fromDate) " +
+            "AND (:toDate IS NULL OR lr.startDate <= :toDate) " +
+            "ORDER BY lr.id")
+    Stream<LeaveResponseDto> streamForExport(@Param("status") LeaveStatus status,
+                                             @Param("leaveType") LeaveType leaveType,
+                                             @Param("userEmail") String userEmail,
+                                             @Param("fromDate") LocalDate fromDate,
+                                             @Param("toDate") LocalDate toDate);
+
+    int EXPORT_FETCH_SIZE = 500;
 }
@@ -0,0 +1,48 @@
+package com.example.leavemanagement.repository;
+
+import com.example.leavemanagement.model.OutboxMessage;
+import com.example.leavemanagement.model.OutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    @Query("SELECT m.id FROM OutboxMessage m WHERE m.status = :status AND m.nextAttemptAt <= :now ORDER BY m.id")
+    List<Long> findDueIds(@Param("status") OutboxStatus status, @Param("now") LocalDateTime now, Limit limit);
+
+    // Rows another dispatcher claimed in the meantime no longer match nextAttemptAt <= :now and are skipped
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.claimToken = :token, m.nextAttemptAt = :leaseUntil " +
+           "WHERE m.id IN :ids AND m.status = :status AND m.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids, @Param("status") OutboxStatus status, @Param("token") String token,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<OutboxMessage> findByClaimTokenOrderById(String claimToken);
+
+    // Only rows still held by the given batch: after the lease ran out they may belong to another one
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = :status, m.sentAt = :now, m.claimToken = null " +
+           "WHERE m.id IN :ids AND m.claimToken = :token")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("status") OutboxStatus status, @Param("token") String token,
+                 @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = :status, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt, " +
+           "m.lastError = :error, m.claimToken = null WHERE m.id = :id AND m.claimToken = :token")
+    int markFailed(@Param("id") Long id, @Param("token") String token, @Param("status") OutboxStatus status,
+                   @Param("attempts") int attempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM OutboxMessage m WHERE m.status = :status AND m.sentAt < :cutoff")
+    int deleteSentBefore(@Param("status") OutboxStatus status, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,14 +1,89 @@
 package com.example.leavemanagement.repository;
 
+import com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto;
+import com.example.leavemanagement.model.Role;
 import com.example.leavemanagement.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
     Boolean existsByEmail(String email);
     //To check if the email already exists in the database before registering as every user has a unique email
-}
\ No newline at end of file
+
+    // Just the three balance columns, for the balance endpoint and its cache - no full User hydration
+    @Query("SELECT new com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto(" +
+            "u.annualLeaveBalance, u.sickLeaveBalance, u.casualLeaveBalance) FROM User u WHERE u.email = :email")
+    Optional<LeaveBalanceResponseDto> findBalanceByEmail(@Param("email") String email);
+
+    @Query("SELECT new com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto(" +
+            "u.annualLeaveBalance, u.sickLeaveBalance, u.casualLeaveBalance) FROM User u WHERE u.id = :userId")
+    Optional<LeaveBalanceResponseDto> findBalanceById(@Param("userId") Long userId);
+
+    // Conditional deductions: the balance check and the subtraction happen in one UPDATE,
+    // so two concurrent applications can never both spend the same days.
+    // They return the number of rows updated - 0 means the balance was too low.
+    @Modifying
+    @Query("UPDATE User u SET u.annualLeaveBalance = u.annualLeaveBalance - :days, u.version = u.version + 1 " +
+            "WHERE u.id = :userId AND u.annualLeaveBalance >= :days")
+    int deductAnnualLeaveBalance(@Param("userId") Long userId, @Param("days") int days);
+
+    @Modifying
+    @Query("UPDATE User u SET u.sickLeaveBalance = u.sickLeaveBalance - :days, u.version = u.version + 1 " +
+            "WHERE u.id = :userId AND u.sickLeaveBalance >= :days")
+    int deductSickLeaveBalance(@Param("userId") Long userId, @Param("days") int days);
+
+    @Modifying
+    @Query("UPDATE User u SET u.casualLeaveBalance = u.casualLeaveBalance - :days, u.version = u.version + 1 " +
+            "WHERE u.id = :userId AND u.casualLeaveBalance >= :days")
+    int deductCasualLeaveBalance(@Param("userId") Long userId, @Param("days") int days);
+
+    // Refunds are relative too, so they never overwrite a concurrent deduction with a stale value.
+    // Every balance UPDATE also bumps the optimistic-lock version, so entity-based writers
+    // holding an older copy of the row (e.g. the admin balance update) detect the change.
+    @Modifying
+    @Query("UPDATE User u SET u.annualLeaveBalance = u.annualLeaveBalance + :days, " +
+            "u.version = u.version + 1 WHERE u.id = :userId")
+    int restoreAnnualLeaveBalance(@Param("userId") Long userId, @Param("days") int days);
+
+    @Modifying
+    @Query("UPDATE User u SET u.sickLeaveBalance = u.sickLeaveBalance + :days, " +
+            "u.version = u.version + 1 WHERE u.id = :userId")
+    int restoreSickLeaveBalance(@Param("userId") Long userId, @Param("days") int days);
+
+    @Modifying
+    @Query("UPDATE User u SET u.casualLeaveBalance = u.casualLeaveBalance + :days, " +
+            "u.version = u.version + 1 WHERE u.id = :userId")
+    int restoreCasualLeaveBalance(@Param("userId") Long userId, @Param("days") int days);
+
+    // Password and role changes touch only their own column, so a concurrent apply or cancel
+    // (which bumps the version) cannot fail them. They bump the version themselves, so an
+    // entity-based writer holding an older copy cannot write the old password or role back.
+    // Both return the number of rows updated - 0 means no such user.
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password, u.version = u.version + 1 WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
+    // Only if the stored hash is still the one the caller checked the current password against -
+    // the check and the new hash are computed outside the transaction
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password, u.version = u.version + 1 " +
+            "WHERE u.email = :email AND u.password = :checkedPassword")
+    int updatePasswordIfUnchanged(@Param("email") String email, @Param("checkedPassword") String checkedPassword,
+                                  @Param("password") String password);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.role = :role, u.version = u.version + 1 WHERE u.email = :email")
+    int updateRoleByEmail(@Param("email") String email, @Param("role") Role role);
+}
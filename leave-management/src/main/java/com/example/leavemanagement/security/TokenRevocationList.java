@@ -0,0 +1,177 @@
+package com.example.leavemanagement.security;
+
+import com.example.leavemanagement.model.TokenRevocation;
+import com.example.leavemanagement.repository.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Revoked JWTs, checked by JwtAuthenticationFilter on every request without touching the database.
+ *
+ * Two kinds of revocation:
+ * - a single token by its jti (logout): a Bloom filter answers "not revoked" for almost every
+ *   token in a few bit reads, and only a "maybe" goes on to the exact set;
+ * - every token of a user issued before a not-before instant (forced sign-out by an admin).
+ *
+ * Revocations are written to token_revocations first and then applied in memory. The table is
+ * reloaded at startup and on leave.revocation.refresh-cron, which also drops rows whose tokens
+ * have all expired and lets other nodes pick up revocations made elsewhere.
+ *
+ * Metrics: auth.revocations.tokens, auth.revocations.users (gauges)
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${leave.revocation.expected-tokens:10000}")
+    private int expectedTokens;
+
+    // Readers never lock; writers (revocations and reloads) take this lock. ReentrantLock rather than
+    // synchronized because a writer does I/O and must not pin a virtual thread's carrier.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile State state = new State(
+            new BloomFilter(1, FALSE_POSITIVE_RATE), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    @PostConstruct
+    void init() {
+        reload();
+        Gauge.builder("auth.revocations.tokens", this, list -> list.state.revokedJtis.size())
+                .description("Revoked token ids held in memory")
+                .register(meterRegistry);
+        Gauge.builder("auth.revocations.users", this, list -> list.state.notBefore.size())
+                .description("Users with a forced sign-out still in effect")
+                .register(meterRegistry);
+    }
+
+    /**
+     * True if these (already verified) claims belong to a revoked token.
+     */
+    public boolean isRevoked(Claims claims) {
+        State current = state;
+
+        String jti = claims.getId();
+        if (jti != null && current.bloom.mightContain(jti) && current.revokedJtis.containsKey(jti)) {
+            return true;
+        }
+
+        Instant notBefore = current.notBefore.get(claims.getSubject());
+        if (notBefore != null) {
+            Date issuedAt = claims.getIssuedAt();
+            // iat has whole-second precision, so a login in the same second as the sign-out is
+            // refused too - the safe side to err on
+            return issuedAt == null || issuedAt.toInstant().isBefore(notBefore);
+        }
+        return false;
+    }
+
+    /**
+     * Revoke one token, e.g. on logout. Tokens without a jti (issued before jtis existed) are left alone.
+     */
+    public void revokeToken(Claims claims) {
+        if (claims.getId() == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (state.revokedJtis.containsKey(claims.getId())) {
+                return;
+            }
+            tokenRevocationRepository.save(new TokenRevocation(
+                    claims.getId(), claims.getSubject(), null, claims.getExpiration().toInstant()));
+
+            state.revokedJtis.put(claims.getId(), claims.getExpiration().toInstant());
+            state.bloom.add(claims.getId());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Revoke every token the user holds right now. Tokens from later logins still work.
+     */
+    public void revokeAllForUser(String email) {
+        writeLock.lock();
+        try {
+            Instant now = Instant.now();
+            // Any token issued before now expires within jwt.expiration, after which the row is useless
+            tokenRevocationRepository.save(new TokenRevocation(null, email, now, now.plusMillis(jwtExpiration)));
+
+            state.notBefore.merge(email, now, TokenRevocationList::later);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${leave.revocation.refresh-cron:0 * * * * *}")
+    public void refresh() {
+        int purged = tokenRevocationRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+        reload();
+    }
+
+    // Rebuild from the table; also how an oversized Bloom filter gets resized and expired jtis forgotten
+    void reload() {
+        writeLock.lock();
+        try {
+            rebuild();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        List<TokenRevocation> rows = tokenRevocationRepository.findByExpiresAtAfter(Instant.now());
+
+        Map<String, Instant> revokedJtis = new ConcurrentHashMap<>();
+        Map<String, Instant> notBefore = new ConcurrentHashMap<>();
+        for (TokenRevocation row : rows) {
+            if (row.getJti() != null) {
+                revokedJtis.put(row.getJti(), row.getExpiresAt());
+            } else if (row.getNotBefore() != null) {
+                notBefore.merge(row.getEmail(), row.getNotBefore(), TokenRevocationList::later);
+            }
+        }
+
+        BloomFilter bloom = new BloomFilter(Math.max(expectedTokens, revokedJtis.size() * 2), FALSE_POSITIVE_RATE);
+        revokedJtis.keySet().forEach(bloom::add);
+
+        state = new State(bloom, revokedJtis, notBefore);
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private record State(BloomFilter bloom, Map<String, Instant> revokedJtis, Map<String, Instant> notBefore) {
+    }
+}
@@ -2,30 +2,97 @@ package com.example.leavemanagement.security;
 
 import com.example.leavemanagement.model.User;
 import com.example.leavemanagement.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Collections;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${leave.user-details-cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${leave.user-details-cache.ttl:5m}")
+    private Duration cacheTtl;
+
+    // Every authenticated request rebuilds its principal here, so the user row is cached by email.
+    // We cache an immutable copy and hand out a new UserDetails each time: Spring Security erases the
+    // password of the UserDetails it authenticated, which must not reach the cached entry.
+    // AuthService evicts an entry when that user's password or role changes; the TTL covers other nodes.
+    // Metrics: cache.* tagged cache=user.details
+    private Cache<String, CachedUser> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user.details");
+    }
+
     // Defining the UserDetailsServiceImpl class which implements UserDetailsService interface to load user-specific data.
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        CachedUser user = cache.get(email, this::loadUser);
 
         return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
+                user.email(),
+                user.password(),
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.role()))
         );
     }
+
+    /**
+     * Store a rehashed password. DaoAuthenticationProvider calls this after a successful login
+     * whose stored hash used a different BCrypt strength than the one configured now.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        String email = userDetails.getUsername();
+        if (userRepository.updatePasswordByEmail(email, newPassword) == 0) {
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        }
+        evict(email);
+
+        return new org.springframework.security.core.userdetails.User(
+                email, newPassword, userDetails.getAuthorities());
+    }
+
+    /**
+     * Forget a cached user, so the next request reads their current password and role.
+     */
+    public void evict(String email) {
+        cache.invalidate(email);
+    }
+
+    // Unknown emails are not cached: the exception propagates and nothing is stored
+    private CachedUser loadUser(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        return new CachedUser(user.getEmail(), user.getPassword(), user.getRole().name());
+    }
+
+    private record CachedUser(String email, String password, String role) {
+    }
 }
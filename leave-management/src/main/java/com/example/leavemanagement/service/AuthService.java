@@ -1,22 +1,34 @@
 package com.example.leavemanagement.service;
 
+import com.example.leavemanagement.dto.request.ChangePasswordRequest;
 import com.example.leavemanagement.dto.request.LoginRequest;
+import com.example.leavemanagement.dto.request.RoleUpdateRequest;
 import com.example.leavemanagement.dto.request.SignupRequest;
 import com.example.leavemanagement.dto.response.ApiResponse;
 import com.example.leavemanagement.dto.response.JwtResponse;
 import com.example.leavemanagement.model.User;
 import com.example.leavemanagement.repository.UserRepository;
 import com.example.leavemanagement.security.JwtUtils;
+import com.example.leavemanagement.security.TokenRevocationList;
+import com.example.leavemanagement.security.UserDetailsServiceImpl;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+// Every public operation is timed as auth.service{class, method, exception} (see MetricsConfig)
 @Service
+@Timed(value = "auth.service", histogram = true)
 public class AuthService {
    
     @Autowired
@@ -30,23 +42,50 @@ public class AuthService {
     
     @Autowired
     private JwtUtils jwtUtils;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    // Open event streams are closed on forced sign-out
+    @Autowired
+    private LeaveEventHub leaveEventHub;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
    
+    // No @Transactional: BCrypt takes tens of milliseconds and may queue for a hashing thread
+    // (BoundedPasswordEncoder), so the hash is computed before a connection is taken
     public ApiResponse registerUser(SignupRequest signupRequest) {
-        // Check if email is already taken
+        // Check if email is already taken (again below, before the insert)
         if (userRepository.existsByEmail(signupRequest.getEmail())) {
             return new ApiResponse(false, "Email is already in use!");
         }
-       
-        // Create new user
-        User user = new User();
-        user.setName(signupRequest.getName());
-        user.setEmail(signupRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
-        user.setRole(signupRequest.getRole());
-       
-        userRepository.save(user);
-       
-        return new ApiResponse(true, "User registered successfully!");
+        String encodedPassword = passwordEncoder.encode(signupRequest.getPassword());
+
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            if (userRepository.existsByEmail(signupRequest.getEmail())) {
+                return new ApiResponse(false, "Email is already in use!");
+            }
+
+            // Create new user
+            User user = new User();
+            user.setName(signupRequest.getName());
+            user.setEmail(signupRequest.getEmail());
+            user.setPassword(encodedPassword);
+            user.setRole(signupRequest.getRole());
+
+            User savedUser = userRepository.save(user);
+            // Default balances are the first entries of the user's leave history
+            leaveLedgerService.recordOpening(savedUser);
+
+            return new ApiResponse(true, "User registered successfully!");
+        });
     }
     
     public JwtResponse authenticateUser(LoginRequest loginRequest) {
@@ -79,4 +118,68 @@ public class AuthService {
             throw new RuntimeException("Invalid email or password");
         }
     }
+
+    /**
+     * Change the current user's password after checking the old one
+     */
+    // Not @Transactional, for the same reason as registerUser: the lookup reads the primary
+    // outside a transaction, and only the UPDATE runs in one
+    public ApiResponse changePassword(String email, ChangePasswordRequest request) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+
+        if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
+            return new ApiResponse(false, "Current password is incorrect");
+        }
+        String encodedPassword = passwordEncoder.encode(request.getNewPassword());
+
+        // Refused if the password was changed after it was checked
+        if (userRepository.updatePasswordIfUnchanged(email, user.getPassword(), encodedPassword) == 0) {
+            return new ApiResponse(false, "Password was changed meanwhile, please try again");
+        }
+        // The cached principal still holds the old hash
+        userDetailsService.evict(email);
+
+        return new ApiResponse(true, "Password changed successfully");
+    }
+
+    /**
+     * Change a user's role (admin only)
+     */
+    @Transactional
+    public ApiResponse updateRole(RoleUpdateRequest request) {
+        if (userRepository.updateRoleByEmail(request.getEmail(), request.getRole()) == 0) {
+            throw new UsernameNotFoundException("User not found with email: " + request.getEmail());
+        }
+        // Takes effect on the user's next request instead of when the cache entry expires
+        AfterCommit.run(() -> userDetailsService.evict(request.getEmail()));
+
+        return new ApiResponse(true, "Role updated successfully");
+    }
+
+    /**
+     * Revoke the caller's token. A missing, expired or invalid token is already unusable, so that is fine too.
+     */
+    public ApiResponse logout(String jwt) {
+        if (jwt != null) {
+            try {
+                tokenRevocationList.revokeToken(jwtUtils.parseAndVerify(jwt));
+            } catch (JwtException | IllegalArgumentException e) {
+                // nothing to revoke
+            }
+        }
+        return new ApiResponse(true, "Logged out successfully");
+    }
+
+    /**
+     * Sign a user out everywhere: every token issued to them so far stops working (admin only)
+     */
+    public ApiResponse signOutEverywhere(String email) {
+        if (!userRepository.existsByEmail(email)) {
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        }
+        tokenRevocationList.revokeAllForUser(email);
+        leaveEventHub.disconnectUser(email);
+        return new ApiResponse(true, "User signed out of all sessions");
+    }
 }
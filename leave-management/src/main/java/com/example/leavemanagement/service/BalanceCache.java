@@ -0,0 +1,68 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory copy of users' leave balances, keyed by email, for GET /api/leave/balance.
+ *
+ * LeaveService writes through: after a balance change commits it puts the new balances (read in
+ * the same transaction) while still holding the user's lock. A concurrent miss that loaded the old
+ * value cannot win, because Caffeine finishes that load before applying the put. Bulk jobs
+ * (accrual, rollover) invalidate everything instead.
+ *
+ * The cache is per node, so a write on another node is only seen here after the TTL - keep it short
+ * when running more than one instance.
+ *
+ * Metrics: cache.gets / cache.puts / cache.evictions tagged cache=leave.balance.
+ */
+@Component
+public class BalanceCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${leave.balance-cache.max-size:100000}")
+    private long maxSize;
+
+    @Value("${leave.balance-cache.ttl:10m}")
+    private Duration ttl;
+
+    private Cache<String, LeaveBalanceResponseDto> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "leave.balance");
+    }
+
+    public LeaveBalanceResponseDto get(String userEmail, Function<String, LeaveBalanceResponseDto> loader) {
+        return cache.get(userEmail, loader);
+    }
+
+    public void put(String userEmail, LeaveBalanceResponseDto balance) {
+        cache.put(userEmail, balance);
+    }
+
+    public void invalidate(String userEmail) {
+        cache.invalidate(userEmail);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.leavemanagement.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Reads public holidays from CSV or iCalendar (.ics) files.
+ *
+ * CSV: one holiday per line, ISO date in the first column ("2025-12-25,Christmas Day").
+ * Blank lines and lines starting with '#' are skipped, and so is a header line.
+ *
+ * ICS: every VEVENT contributes DTSTART up to (but excluding) DTEND, which is how all-day events
+ * are exported by Google/Outlook calendars. Recurrence rules are not expanded - export the
+ * calendar with concrete dates for each year you need.
+ */
+final class HolidayFileParser {
+
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private HolidayFileParser() {
+    }
+
+    static Set<LocalDate> parse(String fileName, Reader reader) throws IOException {
+        List<String> lines = new BufferedReader(reader).lines().toList();
+        return fileName.toLowerCase(Locale.ROOT).endsWith(".ics") ? parseIcs(fileName, lines) : parseCsv(fileName, lines);
+    }
+
+    private static Set<LocalDate> parseCsv(String fileName, List<String> lines) {
+        Set<LocalDate> holidays = new HashSet<>();
+        boolean firstRow = true;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String firstColumn = line.split(",", 2)[0].strip();
+            try {
+                holidays.add(LocalDate.parse(firstColumn));
+            } catch (DateTimeParseException e) {
+                // A non-date in the very first row is a header; anywhere else it is a broken file
+                if (!firstRow) {
+                    throw new IllegalStateException("Invalid holiday date '" + firstColumn + "' in "
+                            + fileName + " line " + (i + 1), e);
+                }
+            }
+            firstRow = false;
+        }
+        return holidays;
+    }
+
+    private static Set<LocalDate> parseIcs(String fileName, List<String> lines) {
+        Set<LocalDate> holidays = new HashSet<>();
+        LocalDate start = null;
+        LocalDate end = null;
+        for (String line : unfold(lines)) {
+            if (line.equals("BEGIN:VEVENT")) {
+                start = null;
+                end = null;
+            } else if (line.startsWith("DTSTART")) {
+                start = icsDate(fileName, line);
+            } else if (line.startsWith("DTEND")) {
+                end = icsDate(fileName, line);
+            } else if (line.equals("END:VEVENT") && start != null) {
+                // DTEND is exclusive; an event without one lasts a single day
+                LocalDate last = end != null && end.isAfter(start) ? end.minusDays(1) : start;
+                for (LocalDate day = start; !day.isAfter(last); day = day.plusDays(1)) {
+                    holidays.add(day);
+                }
+            }
+        }
+        return holidays;
+    }
+
+    // "DTSTART;VALUE=DATE:20251225" or "DTSTART:20251225T000000Z" - the date is the first 8 characters of the value
+    private static LocalDate icsDate(String fileName, String line) {
+        String value = line.substring(line.indexOf(':') + 1).strip();
+        try {
+            return LocalDate.parse(value.substring(0, Math.min(8, value.length())), ICS_DATE);
+        } catch (DateTimeParseException e) {
+            throw new IllegalStateException("Invalid date in " + fileName + ": " + line, e);
+        }
+    }
+
+    // RFC 5545 folds long lines: a line starting with a space or tab continues the previous one
+    private static List<String> unfold(List<String> lines) {
+        List<String> unfolded = new ArrayList<>();
+        for (String line : lines) {
+            if ((line.startsWith(" ") || line.startsWith("\t")) && !unfolded.isEmpty()) {
+                int last = unfolded.size() - 1;
+                unfolded.set(last, unfolded.get(last) + line.substring(1));
+            } else {
+                unfolded.add(line.strip());
+            }
+        }
+        return unfolded;
+    }
+}
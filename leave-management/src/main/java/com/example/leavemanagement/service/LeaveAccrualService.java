@@ -0,0 +1,320 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.model.AccrualRun;
+import com.example.leavemanagement.model.AccrualRunStatus;
+import com.example.leavemanagement.model.LeaveType;
+import com.example.leavemanagement.repository.AccrualRunRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Monthly leave accrual: credits every user the configured days per leave type for a month,
+ * pro-rated by how much of that month they were employed (User.createdAt).
+ *
+ * Users are read in id order in keyset chunks (WHERE id > :last ORDER BY id LIMIT :chunk).
+ * Each chunk is one JDBC batch UPDATE in its own transaction on a small fixed worker pool. After
+ * every wave of chunks the highest processed id is saved in accrual_runs, so a restart continues
+ * from there instead of from the first user.
+ *
+ * The job is scheduled on every node. Only one of them works on a month at a time: the
+ * accrual_runs row is created once (the month is unique; a node that loses the insert reads the
+ * winner's row) and then claimed with a lease, a conditional UPDATE that succeeds only when no
+ * unexpired lease is held. The lease is renewed at every checkpoint, and the checkpoints are
+ * version-checked, so a node whose lease expired and was taken over stops instead of overwriting
+ * the new owner's progress.
+ *
+ * Runs left RUNNING by a crash are finished on application start and by a periodic check
+ * (leave.accrual.resume-cron), once their lease has expired. A chunk that committed after the last checkpoint is not credited twice on resume: the
+ * UPDATE only touches users whose last_accrual_month is older than the month being credited. For
+ * the same reason a month older than one already completed cannot be resumed - its remaining users
+ * already carry the later month - so that is refused and logged for manual follow-up.
+ */
+@Service
+public class LeaveAccrualService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveAccrualService.class);
+
+    private static final String SELECT_CHUNK =
+            "SELECT id, created_at FROM users WHERE id > ? ORDER BY id LIMIT ?";
+
+    // Relative increments, like the leave deductions, so it is safe to run while users apply for leave
+    private static final String CREDIT_USER =
+            "UPDATE users SET annual_leave_balance = annual_leave_balance + ?, " +
+            "sick_leave_balance = sick_leave_balance + ?, " +
+            "casual_leave_balance = casual_leave_balance + ?, " +
+            "version = version + 1, last_accrual_month = ? " +
+            "WHERE id = ? AND (last_accrual_month IS NULL OR last_accrual_month < ?)";
+
+    private static final String RECORD_ACCRUAL =
+            "INSERT INTO leave_ledger (user_id, leave_type, delta, entry_type, created_at) VALUES (?, ?, ?, 'ACCRUAL', ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AccrualRunRepository accrualRunRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private UserChangeVersions userChangeVersions;
+
+    @Value("${leave.accrual.annual-days-per-month:2}")
+    private int annualDaysPerMonth;
+
+    @Value("${leave.accrual.sick-days-per-month:1}")
+    private int sickDaysPerMonth;
+
+    @Value("${leave.accrual.casual-days-per-month:1}")
+    private int casualDaysPerMonth;
+
+    @Value("${leave.accrual.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${leave.accrual.workers:4}")
+    private int workers;
+
+    // Must comfortably exceed the time one wave of chunks takes
+    @Value("${leave.accrual.lease:10m}")
+    private Duration lease;
+
+    /**
+     * Credit the month that just ended. Runs on every node; the lease lets only one of them do the work.
+     */
+    @Scheduled(cron = "${leave.accrual.cron:0 0 1 1 * *}")
+    public void accrueLastMonth() {
+        accrue(YearMonth.now().minusMonths(1));
+    }
+
+    /**
+     * Finish runs that a crash or shutdown left RUNNING. The cron only ever starts last month's run,
+     * so without this an interrupted month would never complete. Also periodic: a run whose node
+     * died is only free to take over once its lease has expired.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${leave.accrual.resume-cron:0 */15 * * * *}")
+    public void resumeInterruptedRuns() {
+        for (AccrualRun run : accrualRunRepository.findByStatus(AccrualRunStatus.RUNNING)) {
+            YearMonth month = YearMonth.from(run.getMonth());
+            if (run.getLeaseUntil() != null && run.getLeaseUntil().isAfter(LocalDateTime.now())) {
+                // Another node is working on it
+                continue;
+            }
+            log.info("Resuming leave accrual for {} after user id {}", month, run.getLastUserId());
+            try {
+                accrue(month);
+            } catch (RuntimeException e) {
+                // Stays RUNNING; the next start tries again
+                log.error("Resuming leave accrual for {} failed", month, e);
+            }
+        }
+    }
+
+    /**
+     * Credit one month to every user, resuming from the checkpoint if an earlier run was interrupted.
+     * Returns the run as it is when another node holds its lease.
+     */
+    public AccrualRun accrue(YearMonth month) {
+        LocalDate firstDay = month.atDay(1);
+        AccrualRun run = findOrCreateRun(firstDay);
+        if (run.getStatus() == AccrualRunStatus.COMPLETED) {
+            return run;
+        }
+        if (accrualRunRepository.existsByStatusAndMonthAfter(AccrualRunStatus.COMPLETED, firstDay)) {
+            throw new IllegalStateException("Leave accrual for " + month + " cannot be resumed after user id "
+                    + run.getLastUserId() + ": a later month is already completed, so the guard would skip "
+                    + "the remaining users. Credit them manually and mark the run COMPLETED");
+        }
+
+        // Claim and re-read in one read-write transaction, so the version we continue from is the primary's
+        Long runId = run.getId();
+        AccrualRun claimed = new TransactionTemplate(transactionManager).execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (accrualRunRepository.claimLease(runId, AccrualRunStatus.RUNNING, now, now.plus(lease)) == 0) {
+                return null;
+            }
+            return accrualRunRepository.findById(runId).orElseThrow();
+        });
+        if (claimed == null) {
+            log.info("Leave accrual for {} is held by another node", month);
+            return run;
+        }
+
+        try {
+            return creditAll(claimed, month);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Leave accrual for {} lost its lease to another node, stopping here", month);
+            return accrualRunRepository.findByMonth(firstDay).orElseThrow();
+        }
+    }
+
+    // The month is unique: when two nodes create it at once, the loser reads the winner's row
+    private AccrualRun findOrCreateRun(LocalDate firstDay) {
+        Optional<AccrualRun> existing = accrualRunRepository.findByMonth(firstDay);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        try {
+            return accrualRunRepository.save(new AccrualRun(firstDay));
+        } catch (DataIntegrityViolationException e) {
+            return accrualRunRepository.findByMonth(firstDay).orElseThrow(() -> e);
+        }
+    }
+
+    private AccrualRun creditAll(AccrualRun run, YearMonth month) {
+        ExecutorService pool = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("leave-accrual-", 0).factory());
+        try {
+            long lastUserId = run.getLastUserId();
+            boolean exhausted = false;
+            while (!exhausted) {
+                // Read up to one chunk per worker, then wait for the whole wave before checkpointing,
+                // so the checkpoint never moves past a chunk that might still fail
+                List<Future<Integer>> wave = new ArrayList<>();
+                while (wave.size() < workers) {
+                    List<AccrualCandidate> chunk = jdbcTemplate.query(SELECT_CHUNK,
+                            (rs, rowNum) -> new AccrualCandidate(rs.getLong("id"), rs.getTimestamp("created_at")),
+                            lastUserId, chunkSize);
+                    if (!chunk.isEmpty()) {
+                        lastUserId = chunk.get(chunk.size() - 1).id();
+                        wave.add(pool.submit(() -> creditChunk(chunk, month)));
+                    }
+                    if (chunk.size() < chunkSize) {
+                        exhausted = true;
+                        break;
+                    }
+                }
+
+                long credited = 0;
+                for (Future<Integer> chunkResult : wave) {
+                    credited += awaitChunk(chunkResult);
+                }
+                // Version-checked, and renews the lease
+                run.setLastUserId(lastUserId);
+                run.setUsersCredited(run.getUsersCredited() + credited);
+                run.setLeaseUntil(LocalDateTime.now().plus(lease));
+                run = accrualRunRepository.save(run);
+                // Cheaper than tracking which cached users were in the wave
+                balanceCache.invalidateAll();
+                userChangeVersions.bumpAll();
+                meterRegistry.counter("leave.accrual.users.credited").increment(credited);
+            }
+
+            run.setStatus(AccrualRunStatus.COMPLETED);
+            run.setCompletedAt(LocalDateTime.now());
+            run.setLeaseUntil(null);
+            run = accrualRunRepository.save(run);
+            log.info("Leave accrual for {} completed: {} users credited", month, run.getUsersCredited());
+            return run;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int creditChunk(List<AccrualCandidate> chunk, YearMonth month) {
+        LocalDate firstDay = month.atDay(1);
+        List<Object[]> batch = new ArrayList<>(chunk.size());
+        for (AccrualCandidate candidate : chunk) {
+            LocalDate joined = candidate.createdAt() == null ? null : candidate.createdAt().toLocalDateTime().toLocalDate();
+            int annual = prorate(annualDaysPerMonth, joined, month);
+            int sick = prorate(sickDaysPerMonth, joined, month);
+            int casual = prorate(casualDaysPerMonth, joined, month);
+            // Users who joined after the month ended get nothing and keep their guard untouched
+            if (annual + sick + casual > 0) {
+                batch.add(new Object[]{annual, sick, casual, firstDay, candidate.id(), firstDay});
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            int[] updated = jdbcTemplate.batchUpdate(CREDIT_USER, batch);
+
+            // Ledger entries only for the users the guard let through, in the same transaction
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> entries = new ArrayList<>();
+            int credited = 0;
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] > 0) {
+                    credited++;
+                    Object[] credit = batch.get(i);
+                    addEntry(entries, credit[4], LeaveType.ANNUAL, (int) credit[0], now);
+                    addEntry(entries, credit[4], LeaveType.SICK, (int) credit[1], now);
+                    addEntry(entries, credit[4], LeaveType.CASUAL, (int) credit[2], now);
+                }
+            }
+            if (!entries.isEmpty()) {
+                jdbcTemplate.batchUpdate(RECORD_ACCRUAL, entries);
+            }
+            return credited;
+        });
+    }
+
+    private void addEntry(List<Object[]> entries, Object userId, LeaveType leaveType, int days, LocalDateTime now) {
+        if (days != 0) {
+            entries.add(new Object[]{userId, leaveType.name(), days, now});
+        }
+    }
+
+    private int awaitChunk(Future<Integer> chunkResult) {
+        try {
+            return chunkResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Leave accrual was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Leave accrual chunk failed, the run will resume from the last checkpoint", e.getCause());
+        }
+    }
+
+    // Days employed in the month / days in the month, rounded to whole days
+    static int prorate(int daysPerMonth, LocalDate joined, YearMonth month) {
+        LocalDate firstDay = month.atDay(1);
+        LocalDate lastDay = month.atEndOfMonth();
+        long employedDays;
+        if (joined == null || !joined.isAfter(firstDay)) {
+            employedDays = month.lengthOfMonth();
+        } else if (joined.isAfter(lastDay)) {
+            employedDays = 0;
+        } else {
+            employedDays = ChronoUnit.DAYS.between(joined, lastDay) + 1;
+        }
+        return (int) Math.round((double) daysPerMonth * employedDays / month.lengthOfMonth());
+    }
+
+    private record AccrualCandidate(long id, Timestamp createdAt) {
+    }
+}
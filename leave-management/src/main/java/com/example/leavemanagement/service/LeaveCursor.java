@@ -0,0 +1,56 @@
+package com.example.leavemanagement.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the (applied_at DESC, id DESC) ordering of leave requests.
+ * Clients only ever see the encoded form, so the layout can change without breaking them.
+ */
+public final class LeaveCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime appliedAt;
+    private final Long id;
+
+    public LeaveCursor(LocalDateTime appliedAt, Long id) {
+        this.appliedAt = appliedAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getAppliedAt() {
+        return appliedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = appliedAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     * A tampered or truncated token is reported as IllegalArgumentException, which the API maps to 400.
+     */
+    public static LeaveCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new LeaveCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1))
+            );
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.leavemanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Event streams: one per signed-in employee tab (their leaves being approved or
+ * rejected) and one per HR tab (new applications). Replaces polling my-requests for status changes.
+ *
+ * An idle stream is an async servlet request plus a small buffer, no thread, so tens of thousands
+ * fit on one node (see server.tomcat.max-connections). Publishing never blocks the caller - it runs
+ * after commit inside LeaveService: each event is serialized once, put into every target stream's
+ * bounded buffer, and written out by a small writer pool.
+ * (Platform threads on purpose: ResponseBodyEmitter.send is synchronized, so a write stuck on a slow
+ * socket would pin a virtual thread's carrier.) A stream whose buffer is full is a slow or dead consumer and is closed rather
+ * than allowed to grow; the browser's EventSource reconnects and the page refetches what it shows.
+ * Heartbeats keep proxies from closing idle streams and find dead peers.
+ *
+ * Events are per node: with several instances, an employee only hears about changes made on the
+ * node holding their stream until the next reconnect. There is no replay of missed events.
+ *
+ * Metrics: leave.events.streams (gauge, tag stream=user|admin), leave.events.sent,
+ * leave.events.dropped (slow consumers closed)
+ */
+@Component
+public class LeaveEventHub {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveEventHub.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${leave.events.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${leave.events.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${leave.events.max-streams-per-user:5}")
+    private int maxStreamsPerUser;
+
+    // 0 = one per core
+    @Value("${leave.events.writer-threads:0}")
+    private int writerThreads;
+
+    // Email -> that user's open streams, oldest first
+    private final Map<String, ConcurrentLinkedDeque<Stream>> userStreams = new ConcurrentHashMap<>();
+    private final Set<Stream> adminStreams = ConcurrentHashMap.newKeySet();
+
+    // At most one pending drain task per stream, so the queue is bounded by the stream count
+    private ExecutorService writers;
+    private final AtomicLong eventIds = new AtomicLong();
+
+    private Counter sent;
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads > 0 ? writerThreads : Runtime.getRuntime().availableProcessors(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "leave-events-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("leave.events.streams", userStreams, streams -> streams.values().stream().mapToInt(ConcurrentLinkedDeque::size).sum())
+                .description("Open event streams")
+                .tag("stream", "user")
+                .register(meterRegistry);
+        Gauge.builder("leave.events.streams", adminStreams, Set::size)
+                .description("Open event streams")
+                .tag("stream", "admin")
+                .register(meterRegistry);
+        sent = meterRegistry.counter("leave.events.sent");
+        dropped = meterRegistry.counter("leave.events.dropped");
+    }
+
+    /**
+     * Open a stream of the user's leave status changes.
+     */
+    public SseEmitter subscribeUser(String email) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        registerUser(email, emitter);
+        return emitter;
+    }
+
+    /**
+     * Open a stream of new leave applications, for HR.
+     */
+    public SseEmitter subscribeAdmin() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        registerAdmin(emitter);
+        return emitter;
+    }
+
+    Stream registerUser(String email, SseEmitter emitter) {
+        // Add and remove inside compute, so a stream is never added to a deque that is being dropped
+        Stream stream = register(emitter, () -> userStreams.computeIfPresent(email, (e, streams) -> {
+            streams.removeIf(s -> s.emitter == emitter);
+            return streams.isEmpty() ? null : streams;
+        }));
+        ConcurrentLinkedDeque<Stream> streams = userStreams.compute(email, (e, current) -> {
+            ConcurrentLinkedDeque<Stream> deque = current != null ? current : new ConcurrentLinkedDeque<>();
+            deque.addLast(stream);
+            return deque;
+        });
+        // A user with many tabs (or a reconnect loop) gives up the oldest stream. Taken off this deque
+        // here rather than by close(): after a disconnectUser the deque is no longer mapped, and
+        // close() would only look at the mapped one
+        while (streams.size() > maxStreamsPerUser) {
+            Stream oldest = streams.pollFirst();
+            if (oldest != null) {
+                oldest.close();
+            }
+        }
+        return stream;
+    }
+
+    Stream registerAdmin(SseEmitter emitter) {
+        Stream stream = register(emitter, () -> adminStreams.removeIf(s -> s.emitter == emitter));
+        adminStreams.add(stream);
+        return stream;
+    }
+
+    private Stream register(SseEmitter emitter, Runnable onClose) {
+        Stream stream = new Stream(emitter, onClose);
+        emitter.onCompletion(stream::closed);
+        emitter.onTimeout(stream::closed);
+        emitter.onError(e -> stream.closed());
+        // Sent straight away so proxies and the browser see the stream is open
+        stream.offer(SseEmitter.event().comment("connected").build());
+        return stream;
+    }
+
+    public void publishToUser(String email, String eventName, Object data) {
+        ConcurrentLinkedDeque<Stream> streams = userStreams.get(email);
+        if (streams != null) {
+            Set<DataWithMediaType> event = event(eventName, data);
+            streams.forEach(stream -> stream.offer(event));
+        }
+    }
+
+    public void publishToAdmins(String eventName, Object data) {
+        Set<DataWithMediaType> event = event(eventName, data);
+        adminStreams.forEach(stream -> stream.offer(event));
+    }
+
+    // Forced sign-out: the user's open streams must not outlive their tokens
+    public void disconnectUser(String email) {
+        ConcurrentLinkedDeque<Stream> streams = userStreams.remove(email);
+        if (streams != null) {
+            streams.forEach(Stream::close);
+        }
+    }
+
+    @Scheduled(cron = "${leave.events.heartbeat-cron:*/20 * * * * *}")
+    public void heartbeat() {
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        userStreams.values().forEach(streams -> streams.forEach(stream -> stream.offer(heartbeat)));
+        adminStreams.forEach(stream -> stream.offer(heartbeat));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        userStreams.values().forEach(streams -> streams.forEach(Stream::close));
+        adminStreams.forEach(Stream::close);
+        writers.shutdown();
+    }
+
+    // Built and serialized once, however many streams it goes to (a builder is single-use)
+    private Set<DataWithMediaType> event(String eventName, Object data) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + eventName + " event", e);
+        }
+        return SseEmitter.event()
+                .id(Long.toString(eventIds.incrementAndGet()))
+                .name(eventName)
+                .data(json)
+                .build();
+    }
+
+    /**
+     * One open stream: a bounded buffer in front of the emitter, drained by at most one writer.
+     */
+    final class Stream {
+
+        private final SseEmitter emitter;
+        private final Runnable onClose;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final AtomicBoolean open = new AtomicBoolean(true);
+
+        Stream(SseEmitter emitter, Runnable onClose) {
+            this.emitter = emitter;
+            this.onClose = onClose;
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            if (!open.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                // The client is not reading fast enough (or is gone): drop it instead of buffering more
+                dropped.increment();
+                log.debug("Closing slow event stream, {} events buffered", buffer.size());
+                close();
+                return;
+            }
+            if (writing.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<DataWithMediaType> event;
+                while (open.get() && (event = buffer.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                        sent.increment();
+                    } catch (Exception e) {
+                        // Client went away; the container reports it through onError/onCompletion too
+                        closed();
+                        return;
+                    }
+                }
+                writing.set(false);
+                // An offer between the last poll and the reset above saw writing=true and left it to us
+            } while (open.get() && !buffer.isEmpty() && writing.compareAndSet(false, true));
+        }
+
+        // We end the stream; completing may wait for a blocked write, so it never runs on the caller
+        void close() {
+            if (closed()) {
+                writers.execute(emitter::complete);
+            }
+        }
+
+        // The stream ended (either side); true only for the first call
+        boolean closed() {
+            if (!open.compareAndSet(true, false)) {
+                return false;
+            }
+            buffer.clear();
+            onClose.run();
+            return true;
+        }
+
+        boolean isOpen() {
+            return open.get();
+        }
+    }
+}
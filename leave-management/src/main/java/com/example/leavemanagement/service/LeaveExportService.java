@@ -0,0 +1,148 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveExportFormat;
+import com.example.leavemanagement.dto.leave.LeaveRequestFilterDto;
+import com.example.leavemanagement.dto.leave.LeaveResponseDto;
+import com.example.leavemanagement.repository.LeaveRequestRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Bulk export of leave requests for payroll / HR analytics.
+ * Rows are written to the output as they come off the database cursor, so memory use does not
+ * depend on how many rows match and the client starts receiving data before the query is done.
+ */
+@Service
+public class LeaveExportService {
+
+    private static final String CSV_HEADER =
+            "id,userName,userEmail,startDate,endDate,reason,leaveType,status,appliedAt";
+
+    // Push bytes to the client every this many rows instead of waiting for the servlet buffer to fill
+    static final int FLUSH_EVERY_ROWS = LeaveRequestRepository.EXPORT_FETCH_SIZE;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Stream every leave request matching the filter to the output stream.
+     * Runs in a read-only transaction because the database cursor only lives as long as the transaction.
+     */
+    @Transactional(readOnly = true)
+    public void exportLeaveRequests(LeaveRequestFilterDto filter, LeaveExportFormat format,
+                                    OutputStream outputStream) throws IOException {
+        try (Stream<LeaveResponseDto> rows = leaveRequestRepository.streamForExport(
+                filter.getStatus(),
+                filter.getLeaveType(),
+                filter.getUserEmail(),
+                filter.getFrom(),
+                filter.getTo())) {
+            if (format == LeaveExportFormat.CSV) {
+                writeCsv(rows.iterator(), outputStream);
+            } else {
+                writeNdjson(rows.iterator(), outputStream);
+            }
+        }
+    }
+
+    // One JSON document per line, written through a single reusable generator.
+    // Jackson must neither flush after every row nor close the servlet stream when we are done.
+    private void writeNdjson(Iterator<LeaveResponseDto> rows, OutputStream outputStream) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(outputStream)) {
+            int written = 0;
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+                written++;
+                if (written == 1 || written % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            // The separator only goes between values, so terminate the last line ourselves
+            if (written > 0) {
+                outputStream.write('\n');
+            }
+        }
+        outputStream.flush();
+    }
+
+    private void writeCsv(Iterator<LeaveResponseDto> rows, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        // Get the header out immediately so the client sees a response before the first fetch completes
+        writer.flush();
+
+        int written = 0;
+        while (rows.hasNext()) {
+            LeaveResponseDto row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writeCsvField(writer, row.getUserName());
+            writer.write(',');
+            writeCsvField(writer, row.getUserEmail());
+            writer.write(',');
+            writeCsvField(writer, row.getStartDate());
+            writer.write(',');
+            writeCsvField(writer, row.getEndDate());
+            writer.write(',');
+            writeCsvField(writer, row.getReason());
+            writer.write(',');
+            writeCsvField(writer, row.getLeaveType());
+            writer.write(',');
+            writeCsvField(writer, row.getStatus());
+            writer.write(',');
+            writeCsvField(writer, row.getAppliedAt());
+            writer.write('\n');
+            if (++written % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    // RFC 4180 quoting: wrap in quotes only when needed and double any embedded quotes.
+    // Shared with the other CSV writers in this package (YearEndRolloverService)
+    static void writeCsvField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean needsQuotes = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
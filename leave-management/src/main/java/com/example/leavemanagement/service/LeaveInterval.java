@@ -0,0 +1,29 @@
+package com.example.leavemanagement.service;
+
+import java.time.LocalDate;
+
+// An active (pending or approved) leave period of one user, as found by the overlap check
+public final class LeaveInterval {
+
+    private final Long leaveId;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    public LeaveInterval(Long leaveId, LocalDate startDate, LocalDate endDate) {
+        this.leaveId = leaveId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public Long getLeaveId() {
+        return leaveId;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto;
+import com.example.leavemanagement.model.LeaveBalanceSnapshot;
+import com.example.leavemanagement.model.LeaveLedgerEntry;
+import com.example.leavemanagement.model.LeaveType;
+import com.example.leavemanagement.model.LedgerEntryType;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.repository.LeaveBalanceSnapshotRepository;
+import com.example.leavemanagement.repository.LeaveLedgerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Append-only history of every leave balance change.
+ *
+ * Every writer of the balance columns on users (apply, cancel, accrual, rollover, admin
+ * adjustments) appends the matching entries here in the same transaction, so the ledger and the
+ * columns always agree. The columns stay as the running total: the single conditional UPDATE that
+ * stops two applications from spending the same days needs a row to check against. The ledger adds
+ * what the columns cannot give - who changed what, when, and the balance as of any past date.
+ *
+ * As-of reads start from the user's latest snapshot and add only the entries after it. Snapshots
+ * are taken by a scheduled job for users with enough new entries, so that tail stays short.
+ */
+@Service
+public class LeaveLedgerService {
+
+    // Leave types that have a balance; the others are never charged
+    static final Set<LeaveType> TRACKED_TYPES = EnumSet.of(LeaveType.ANNUAL, LeaveType.SICK, LeaveType.CASUAL);
+
+    // Reconciles users without an OPENING entry (rows from before the ledger existed):
+    // the opening amount is whatever the column holds beyond the entries already recorded
+    private static final String BACKFILL_OPENING =
+            "INSERT INTO leave_ledger (user_id, leave_type, delta, entry_type, created_at) " +
+            "SELECT u.id, ?, u.%1$s - COALESCE((SELECT SUM(l.delta) FROM leave_ledger l " +
+            "WHERE l.user_id = u.id AND l.leave_type = ?), 0), 'OPENING', ? " +
+            "FROM users u WHERE NOT EXISTS (SELECT 1 FROM leave_ledger o " +
+            "WHERE o.user_id = u.id AND o.leave_type = ? AND o.entry_type = 'OPENING')";
+
+    // Folds each user's new entries into their previous snapshot, for every user with at least
+    // the minimum number of new entries up to the boundary id
+    private static final String TAKE_SNAPSHOTS =
+            "INSERT INTO leave_balance_snapshots (user_id, annual_leave_balance, sick_leave_balance, " +
+            "casual_leave_balance, last_entry_id, covers_until) " +
+            "SELECT l.user_id, " +
+            "COALESCE(MAX(s.annual_leave_balance), 0) + SUM(CASE WHEN l.leave_type = 'ANNUAL' THEN l.delta ELSE 0 END), " +
+            "COALESCE(MAX(s.sick_leave_balance), 0) + SUM(CASE WHEN l.leave_type = 'SICK' THEN l.delta ELSE 0 END), " +
+            "COALESCE(MAX(s.casual_leave_balance), 0) + SUM(CASE WHEN l.leave_type = 'CASUAL' THEN l.delta ELSE 0 END), " +
+            "MAX(l.id), ? " +
+            "FROM leave_ledger l " +
+            "LEFT JOIN leave_balance_snapshots s ON s.user_id = l.user_id AND s.last_entry_id = " +
+            "(SELECT MAX(s2.last_entry_id) FROM leave_balance_snapshots s2 WHERE s2.user_id = l.user_id) " +
+            "WHERE l.id > COALESCE(s.last_entry_id, 0) AND l.id <= ? " +
+            "GROUP BY l.user_id HAVING COUNT(*) >= ?";
+
+    @Autowired
+    private LeaveLedgerRepository leaveLedgerRepository;
+
+    @Autowired
+    private LeaveBalanceSnapshotRepository leaveBalanceSnapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Entries younger than this are left for the next snapshot: identity ids are handed out before
+    // commit, so a very recent id may still have an uncommitted neighbour below it
+    @Value("${leave.ledger.snapshot-lag-seconds:300}")
+    private long snapshotLagSeconds;
+
+    @Value("${leave.ledger.snapshot-min-entries:20}")
+    private int snapshotMinEntries;
+
+    /**
+     * Append one balance change. Joins the caller's transaction; zero deltas and untracked types are skipped.
+     */
+    public void record(Long userId, LeaveType leaveType, int delta, LedgerEntryType entryType, Long leaveRequestId) {
+        if (delta == 0 || !TRACKED_TYPES.contains(leaveType)) {
+            return;
+        }
+        leaveLedgerRepository.save(new LeaveLedgerEntry(userId, leaveType, delta, entryType, leaveRequestId));
+    }
+
+    // A new user's default balances; written even when zero, as it marks the start of their history
+    public void recordOpening(User user) {
+        leaveLedgerRepository.saveAll(List.of(
+                new LeaveLedgerEntry(user.getId(), LeaveType.ANNUAL, user.getAnnualLeaveBalance(), LedgerEntryType.OPENING, null),
+                new LeaveLedgerEntry(user.getId(), LeaveType.SICK, user.getSickLeaveBalance(), LedgerEntryType.OPENING, null),
+                new LeaveLedgerEntry(user.getId(), LeaveType.CASUAL, user.getCasualLeaveBalance(), LedgerEntryType.OPENING, null)
+        ));
+    }
+
+    /**
+     * Balances at the end of the given day: latest snapshot taken by then, plus the entries after it.
+     */
+    public LeaveBalanceResponseDto balanceAsOf(Long userId, LocalDate date) {
+        LocalDateTime before = date.plusDays(1).atStartOfDay();
+        LeaveBalanceSnapshot snapshot = leaveBalanceSnapshotRepository
+                .findFirstByUserIdAndCoversUntilLessThanEqualOrderByLastEntryIdDesc(userId, before)
+                .orElse(null);
+
+        int annual = snapshot != null ? snapshot.getAnnualLeaveBalance() : 0;
+        int sick = snapshot != null ? snapshot.getSickLeaveBalance() : 0;
+        int casual = snapshot != null ? snapshot.getCasualLeaveBalance() : 0;
+        long afterEntryId = snapshot != null ? snapshot.getLastEntryId() : 0;
+
+        for (Object[] row : leaveLedgerRepository.sumDeltasAfter(userId, afterEntryId, before)) {
+            int sum = ((Number) row[1]).intValue();
+            switch ((LeaveType) row[0]) {
+                case ANNUAL -> annual += sum;
+                case SICK -> sick += sum;
+                case CASUAL -> casual += sum;
+                default -> {
+                    // untracked types never reach the ledger
+                }
+            }
+        }
+        return new LeaveBalanceResponseDto(annual, sick, casual);
+    }
+
+    /**
+     * Give every user without an OPENING entry one, so their ledger sums to their current balance.
+     * Runs on startup; only existing rows from before the ledger are affected.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOpeningEntries() {
+        LocalDateTime now = LocalDateTime.now();
+        backfillOpening(LeaveType.ANNUAL, "annual_leave_balance", now);
+        backfillOpening(LeaveType.SICK, "sick_leave_balance", now);
+        backfillOpening(LeaveType.CASUAL, "casual_leave_balance", now);
+    }
+
+    private void backfillOpening(LeaveType leaveType, String balanceColumn, LocalDateTime now) {
+        jdbcTemplate.update(String.format(BACKFILL_OPENING, balanceColumn),
+                leaveType.name(), leaveType.name(), now, leaveType.name());
+    }
+
+    /**
+     * Snapshot every user with enough new ledger entries. Returns the number of snapshots written.
+     */
+    @Scheduled(cron = "${leave.ledger.snapshot-cron:0 30 2 * * *}")
+    public int takeSnapshots() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(snapshotLagSeconds);
+        Long boundaryId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM leave_ledger WHERE created_at < ?", Long.class, cutoff);
+        if (boundaryId == null) {
+            return 0;
+        }
+        return jdbcTemplate.update(TAKE_SNAPSHOTS, cutoff, boundaryId, snapshotMinEntries);
+    }
+}
@@ -1,77 +1,129 @@
 package com.example.leavemanagement.service;
+import com.example.leavemanagement.config.LeaveOverlapConstraint;
 import com.example.leavemanagement.dto.leave.*;
 import com.example.leavemanagement.dto.leave.LeaveRequestDto;
 import com.example.leavemanagement.dto.leave.LeaveResponseDto;
 import com.example.leavemanagement.dto.response.ApiResponse;
 import com.example.leavemanagement.exception.InsufficientLeaveBalanceException;
 import com.example.leavemanagement.exception.InvalidLeaveDatesException;
+import com.example.leavemanagement.exception.OverlappingLeaveException;
 import com.example.leavemanagement.exception.ResourceNotFoundException;
 import com.example.leavemanagement.model.LeaveRequest;
 import com.example.leavemanagement.model.LeaveStatus;
+import com.example.leavemanagement.model.LeaveType;
+import com.example.leavemanagement.model.LedgerEntryType;
 import com.example.leavemanagement.model.User;
 import com.example.leavemanagement.repository.LeaveRequestRepository;
 import com.example.leavemanagement.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
+// Every public operation is timed as leave.service{class, method, exception} (see MetricsConfig);
+// the leave.* business counters below are tagged by leave_type and counted on commit only
 @Service
+@Timed(value = "leave.service", histogram = true)
 public class LeaveService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    // SSE event names (see LeaveEventHub)
+    public static final String LEAVE_STATUS_EVENT = "leave-status";
+    public static final String LEAVE_APPLIED_EVENT = "leave-applied";
+
+    // Leaves that block their dates for another application
+    static final List<LeaveStatus> ACTIVE_STATUSES = List.of(LeaveStatus.PENDING, LeaveStatus.APPROVED);
+
     @Autowired
     private LeaveRequestRepository leaveRequestRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OptimisticLockRetryExecutor optimisticLockRetryExecutor;
+
+    @Autowired
+    private StripedUserLock stripedUserLock;
+
+    @Autowired
+    private WorkingDayCalendar workingDayCalendar;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserChangeVersions userChangeVersions;
+
+    @Autowired
+    private LeaveEventHub leaveEventHub;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     /**
      * Apply for a leave
      */
+    // The balance deduction and the insert run in one transaction: if the insert fails, the days come back
     public LeaveResponseDto applyLeave(LeaveRequestDto leaveRequestDto, String userEmail) {
         // Validate request
         validateLeaveRequest(leaveRequestDto);
 
+        // Only working days are charged - weekends and public holidays inside the range are free
+        int numberOfDays = workingDayCalendar.countWorkingDays(leaveRequestDto.getStartDate(), leaveRequestDto.getEndDate());
+        if (numberOfDays == 0) {
+            throw new InvalidLeaveDatesException("Leave must include at least one working day");
+        }
+
+        // One mutation per user at a time on this node; the lock is held across the whole transaction
+        try {
+            return stripedUserLock.withLock(userEmail, () -> optimisticLockRetryExecutor.inTransaction("applyLeave",
+                    () -> applyLeaveInTransaction(leaveRequestDto, userEmail, numberOfDays)));
+        } catch (DataIntegrityViolationException e) {
+            if (!LeaveOverlapConstraint.isViolation(e)) {
+                throw e;
+            }
+            // Another node inserted an overlapping leave after our check; the constraint refused ours
+            throw overlapAfterConstraintViolation(userEmail, leaveRequestDto.getStartDate(), leaveRequestDto.getEndDate());
+        }
+    }
+
+    private LeaveResponseDto applyLeaveInTransaction(LeaveRequestDto leaveRequestDto, String userEmail, int numberOfDays) {
         // Get current user
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
 
-        // Calculate number of days
-        long numberOfDays = java.time.temporal.ChronoUnit.DAYS.between(
-                leaveRequestDto.getStartDate(),
-                leaveRequestDto.getEndDate().plusDays(1)
-        );
+        // Refuse dates that overlap one of the user's pending or approved leaves. Within this node the
+        // striped lock makes check-then-insert safe; across nodes the exclusion constraint does
+        findOverlap(user.getId(), leaveRequestDto.getStartDate(), leaveRequestDto.getEndDate())
+                .ifPresent(existing -> {
+                    throw overlapping(existing);
+                });
 
-        // Check leave balance - FIXED: Changed Type() to getLeaveType()
-        switch (leaveRequestDto.getLeaveType()) {
-            case ANNUAL:
-                if (user.getAnnualLeaveBalance() < numberOfDays) {
-                    throw new InsufficientLeaveBalanceException("Insufficient annual leave balance");
-                }
-                user.setAnnualLeaveBalance(user.getAnnualLeaveBalance() - (int)numberOfDays);
-                break;
-
-            case SICK:
-                if (user.getSickLeaveBalance() < numberOfDays) {
-                    throw new InsufficientLeaveBalanceException("Insufficient sick leave balance");
-                }
-                user.setSickLeaveBalance(user.getSickLeaveBalance() - (int)numberOfDays);
-                break;
-
-            case CASUAL:
-                if (user.getCasualLeaveBalance() < numberOfDays) {
-                    throw new InsufficientLeaveBalanceException("Insufficient casual leave balance");
-                }
-                user.setCasualLeaveBalance(user.getCasualLeaveBalance() - (int)numberOfDays);
-                break;
-
-            default:
-                // For other leave types, no balance check
-                break;
-        }
+        // Check and deduct the leave balance in a single conditional UPDATE
+        deductLeaveBalance(user.getId(), leaveRequestDto.getLeaveType(), numberOfDays);
 
         // Create leave request
         LeaveRequest leaveRequest = new LeaveRequest(
@@ -81,19 +133,30 @@ public class LeaveService {
                 leaveRequestDto.getReason(),
                 leaveRequestDto.getLeaveType()
         );
+        leaveRequest.setWorkingDays(numberOfDays);
 
-        // Save the user with updated balance and the leave request
-        userRepository.save(user);
         LeaveRequest savedRequest = leaveRequestRepository.save(leaveRequest);
-
-        // Return response
-        return convertToDto(savedRequest);
+        leaveLedgerService.record(user.getId(), leaveRequestDto.getLeaveType(), -numberOfDays,
+                LedgerEntryType.LEAVE_APPLIED, savedRequest.getId());
+        writeThroughBalance(user.getId(), userEmail, leaveRequestDto.getLeaveType());
+        AfterCommit.run(() -> userChangeVersions.bump(userEmail));
+        countOnCommit("leave.applications", leaveRequestDto.getLeaveType());
+
+        // Return response, and push it to HR's open streams
+        LeaveResponseDto response = convertToDto(savedRequest);
+        AfterCommit.run(() -> leaveEventHub.publishToAdmins(LEAVE_APPLIED_EVENT, response));
+        return response;
     }
 
     /**
      * Cancel a pending leave request
      */
     public ApiResponse cancelLeaveRequest(Long leaveId, String userEmail) {
+        return stripedUserLock.withLock(userEmail, () -> optimisticLockRetryExecutor.inTransaction("cancelLeaveRequest",
+                () -> cancelLeaveRequestInTransaction(leaveId, userEmail)));
+    }
+
+    private ApiResponse cancelLeaveRequestInTransaction(Long leaveId, String userEmail) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
 
@@ -110,58 +173,170 @@ public class LeaveService {
             return new ApiResponse(false, "Only pending leave requests can be cancelled");
         }
 
-        // Calculate number of days
-        long numberOfDays = java.time.temporal.ChronoUnit.DAYS.between(
+        // Cancel the leave request - the status check is repeated in the UPDATE itself,
+        // so two concurrent cancels cannot both refund the same days
+        if (leaveRequestRepository.transitionStatus(leaveId, LeaveStatus.PENDING, LeaveStatus.CANCELLED) == 0) {
+            return new ApiResponse(false, "Only pending leave requests can be cancelled");
+        }
+
+        // Restore leave balance - exactly what was charged at apply time
+        int refundedDays = chargedDays(leaveRequest);
+        restoreLeaveBalance(user.getId(), leaveRequest.getLeaveType(), refundedDays);
+        leaveLedgerService.record(user.getId(), leaveRequest.getLeaveType(), refundedDays,
+                LedgerEntryType.LEAVE_CANCELLED, leaveId);
+        writeThroughBalance(user.getId(), userEmail, leaveRequest.getLeaveType());
+        // Mail goes through the outbox: written in this transaction, sent by OutboxDispatcher
+        notificationOutbox.leaveCancelled(leaveRequest, userEmail, user.getName());
+        AfterCommit.run(() -> userChangeVersions.bump(userEmail));
+        countOnCommit("leave.cancellations", leaveRequest.getLeaveType());
+
+        return new ApiResponse(true, "Leave request cancelled successfully");
+    }
+
+    // Tells the employee's open streams (see LeaveEventHub); the entity still holds the old status
+    private void publishStatusOnCommit(String ownerEmail, LeaveRequest leaveRequest, LeaveStatus newStatus) {
+        LeaveStatusEventDto event = new LeaveStatusEventDto(leaveRequest.getId(), newStatus, leaveRequest.getLeaveType(),
+                leaveRequest.getStartDate(), leaveRequest.getEndDate(), LocalDateTime.now());
+        AfterCommit.run(() -> leaveEventHub.publishToUser(ownerEmail, LEAVE_STATUS_EVENT, event));
+    }
+
+    private Optional<LeaveInterval> findOverlap(Long userId, LocalDate start, LocalDate end) {
+        return leaveRequestRepository.findOverlappingIntervals(userId, ACTIVE_STATUSES, start, end, Limit.of(1))
+                .stream().findFirst();
+    }
+
+    private OverlappingLeaveException overlapping(LeaveInterval existing) {
+        return new OverlappingLeaveException("Leave overlaps with existing leave request #"
+                + existing.getLeaveId() + " (" + existing.getStartDate() + " to " + existing.getEndDate() + ")");
+    }
+
+    // Our transaction is gone, so the winner is read in a new one - read-write, i.e. from the primary,
+    // which already has it. It may have been cancelled meanwhile; then there is no id to name
+    private OverlappingLeaveException overlapAfterConstraintViolation(String userEmail, LocalDate start, LocalDate end) {
+        Optional<LeaveInterval> existing = new TransactionTemplate(transactionManager).execute(
+                status -> userRepository.findByEmail(userEmail).flatMap(user -> findOverlap(user.getId(), start, end)));
+        return existing != null && existing.isPresent()
+                ? overlapping(existing.get())
+                : new OverlappingLeaveException("Leave overlaps with another leave request");
+    }
+
+    // Rolled-back or retried attempts are not counted
+    private void countOnCommit(String name, LeaveType leaveType) {
+        AfterCommit.run(() -> meterRegistry.counter(name, "leave_type", leaveType.name()).increment());
+    }
+
+    // Requests applied before working days were stored were charged every calendar day
+    private int chargedDays(LeaveRequest leaveRequest) {
+        if (leaveRequest.getWorkingDays() != null) {
+            return leaveRequest.getWorkingDays();
+        }
+        return (int) java.time.temporal.ChronoUnit.DAYS.between(
                 leaveRequest.getStartDate(),
                 leaveRequest.getEndDate().plusDays(1)
         );
+    }
+
+    // Reads the balances this transaction just wrote and caches them once it commits
+    private void writeThroughBalance(Long userId, String userEmail, LeaveType leaveType) {
+        if (!LeaveLedgerService.TRACKED_TYPES.contains(leaveType)) {
+            return;
+        }
+        userRepository.findBalanceById(userId)
+                .ifPresent(balance -> AfterCommit.run(() -> balanceCache.put(userEmail, balance)));
+    }
 
-        // Restore leave balance
-        switch (leaveRequest.getLeaveType()) {
+    // A zero row count means the WHERE balance >= days guard failed
+    private void deductLeaveBalance(Long userId, LeaveType leaveType, int numberOfDays) {
+        switch (leaveType) {
             case ANNUAL:
-                user.setAnnualLeaveBalance(user.getAnnualLeaveBalance() + (int)numberOfDays);
+                if (userRepository.deductAnnualLeaveBalance(userId, numberOfDays) == 0) {
+                    throw new InsufficientLeaveBalanceException("Insufficient annual leave balance");
+                }
                 break;
 
             case SICK:
-                user.setSickLeaveBalance(user.getSickLeaveBalance() + (int)numberOfDays);
+                if (userRepository.deductSickLeaveBalance(userId, numberOfDays) == 0) {
+                    throw new InsufficientLeaveBalanceException("Insufficient sick leave balance");
+                }
                 break;
 
             case CASUAL:
-                user.setCasualLeaveBalance(user.getCasualLeaveBalance() + (int)numberOfDays);
+                if (userRepository.deductCasualLeaveBalance(userId, numberOfDays) == 0) {
+                    throw new InsufficientLeaveBalanceException("Insufficient casual leave balance");
+                }
                 break;
 
             default:
-                // For other leave types, no balance update
+                // For other leave types, no balance check
                 break;
         }
+    }
 
-        // Cancel the leave request
-        leaveRequest.setStatus(LeaveStatus.CANCELLED);
+    private void restoreLeaveBalance(Long userId, LeaveType leaveType, int numberOfDays) {
+        switch (leaveType) {
+            case ANNUAL:
+                userRepository.restoreAnnualLeaveBalance(userId, numberOfDays);
+                break;
 
-        // Save the updated user and leave request
-        userRepository.save(user);
-        leaveRequestRepository.save(leaveRequest);
+            case SICK:
+                userRepository.restoreSickLeaveBalance(userId, numberOfDays);
+                break;
 
-        return new ApiResponse(true, "Leave request cancelled successfully");
+            case CASUAL:
+                userRepository.restoreCasualLeaveBalance(userId, numberOfDays);
+                break;
+
+            default:
+                // For other leave types, no balance update
+                break;
+        }
     }
 
     /**
-     * Get all leave requests (for admin/HR)
+     * Get one page of leave requests (for admin/HR), newest first
      */
-    // Use of stream is when we have to take a list based on some filter and then return it as a response
-    public List<LeaveResponseDto> getAllLeaveRequests() {
-        List<LeaveRequest> leaveRequests = leaveRequestRepository.findAllByOrderByAppliedAtDesc();
+    // Keyset pagination: we fetch pageSize + 1 rows after the cursor, and the extra row only tells us
+    // whether another page exists. Cost stays the same on page 1 and page 10,000.
+    @Transactional(readOnly = true)
+    public LeaveRequestPageDto getAllLeaveRequests(LeaveRequestFilterDto filter, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        LeaveCursor after = (cursor == null || cursor.isBlank()) ? null : LeaveCursor.decode(cursor);
+
+        List<LeaveResponseDto> items = leaveRequestRepository.findPage(
+                filter.getStatus(),
+                filter.getLeaveType(),
+                filter.getUserEmail(),
+                filter.getFrom(),
+                filter.getTo(),
+                after != null ? after.getAppliedAt() : null,
+                after != null ? after.getId() : null,
+                Limit.of(pageSize + 1)
+        );
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            LeaveResponseDto last = items.get(pageSize - 1);
+            nextCursor = new LeaveCursor(last.getAppliedAt(), last.getId()).encode();
+        }
+        return new LeaveRequestPageDto(items, nextCursor);
+    }
 
-        return leaveRequests.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
     }
 
     /**
      * Convert LeaveRequest entity to LeaveResponseDto
      */
-    // We have a separate method to convert LeaveRequest entity to LeaveResponseDto
-    // For APIs like getAllLeaveRequests() and getMyLeaveRequests() where we have to return a list of leave requests
+    // List endpoints (getAllLeaveRequests, getMyLeaveRequests) project DTOs in the query instead,
+    // this is only used for single entities we already hold, such as a freshly applied leave
     private LeaveResponseDto convertToDto(LeaveRequest leaveRequest) {
         return new LeaveResponseDto(
                 leaveRequest.getId(),
@@ -191,6 +366,7 @@ public class LeaveService {
         }
     }
 
+    @Transactional
     public ApiResponse approveLeaveRequest(Long leaveId) {
         LeaveRequest leaveRequest = leaveRequestRepository.findById(leaveId)
                 .orElseThrow(() -> new ResourceNotFoundException("Leave request not found with id: " + leaveId));
@@ -200,9 +376,15 @@ public class LeaveService {
             return new ApiResponse(false, "Only pending leave requests can be approved");
         }
 
-        // Approve the leave request
-        leaveRequest.setStatus(LeaveStatus.APPROVED);
-        leaveRequestRepository.save(leaveRequest);
+        // Approve the leave request, unless it was cancelled or decided in the meantime
+        if (leaveRequestRepository.transitionStatus(leaveId, LeaveStatus.PENDING, LeaveStatus.APPROVED) == 0) {
+            return new ApiResponse(false, "Only pending leave requests can be approved");
+        }
+        String ownerEmail = leaveRequest.getUser().getEmail();
+        notificationOutbox.leaveDecided(leaveRequest, ownerEmail, leaveRequest.getUser().getName(), LeaveStatus.APPROVED, null);
+        AfterCommit.run(() -> userChangeVersions.bump(ownerEmail));
+        publishStatusOnCommit(ownerEmail, leaveRequest, LeaveStatus.APPROVED);
+        countOnCommit("leave.approvals", leaveRequest.getLeaveType());
 
         return new ApiResponse(true, "Leave request approved successfully");
     }
@@ -210,6 +392,7 @@ public class LeaveService {
     /**
      * Reject a leave request (for admin/HR)
      */
+    @Transactional
     public ApiResponse rejectLeaveRequest(Long leaveId, String rejectionReason) {
         LeaveRequest leaveRequest = leaveRequestRepository.findById(leaveId)
                 .orElseThrow(() -> new ResourceNotFoundException("Leave request not found with id: " + leaveId));
@@ -220,42 +403,75 @@ public class LeaveService {
         }
 
         // Reject the leave request
-        leaveRequest.setStatus(LeaveStatus.REJECTED);
         // If you want to store the rejection reason, add a field to the LeaveRequest entity
         // For now, we're not storing it
-        leaveRequestRepository.save(leaveRequest);
+        if (leaveRequestRepository.transitionStatus(leaveId, LeaveStatus.PENDING, LeaveStatus.REJECTED) == 0) {
+            return new ApiResponse(false, "Only pending leave requests can be rejected");
+        }
+
+        // Rejected dates are free to be requested again
+        String ownerEmail = leaveRequest.getUser().getEmail();
+        notificationOutbox.leaveDecided(leaveRequest, ownerEmail, leaveRequest.getUser().getName(), LeaveStatus.REJECTED,
+                rejectionReason);
+        AfterCommit.run(() -> userChangeVersions.bump(ownerEmail));
+        publishStatusOnCommit(ownerEmail, leaveRequest, LeaveStatus.REJECTED);
+        countOnCommit("leave.rejections", leaveRequest.getLeaveType());
 
         return new ApiResponse(true, "Leave request rejected successfully");
     }
 
+    /**
+     * Get the current user's leave requests, newest first
+     */
+    // The email comes from the authenticated principal, so we can join on it directly
+    // rather than loading the User row first - one SQL statement in total
+    @Transactional(readOnly = true)
     public List<LeaveResponseDto> getMyLeaveRequests(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
-
-        List<LeaveRequest> leaveRequests = leaveRequestRepository.findByUserOrderByAppliedAtDesc(user);
-
-        return leaveRequests.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return leaveRequestRepository.findResponsesByUserEmail(userEmail);
     }
 
+    /**
+     * Get the current user's leave balance
+     */
+    // The most polled endpoint: served from BalanceCache, which the write paths above keep current.
+    // A hit touches no connection at all. A miss reads in a read-write transaction, i.e. from the
+    // primary (see ReadReplicaConfig): a lagging replica's value would stay cached for the whole TTL
     public LeaveBalanceResponseDto getLeaveBalance(String userEmail) {
+        return balanceCache.get(userEmail, email -> new TransactionTemplate(transactionManager).execute(
+                status -> userRepository.findBalanceByEmail(email)
+                        .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email))));
+    }
+
+    /**
+     * Balances as they were at the end of a given day, rebuilt from the ledger
+     */
+    @Transactional(readOnly = true)
+    public LeaveBalanceResponseDto getLeaveBalanceAsOf(String userEmail, LocalDate date) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
 
-        return new LeaveBalanceResponseDto(
-                user.getAnnualLeaveBalance(),
-                user.getSickLeaveBalance(),
-                user.getCasualLeaveBalance()
-        );
+        return leaveLedgerService.balanceAsOf(user.getId(), date);
     }
 
     /**
      * Update leave balance for a user (admin only)
      */
+    // A plain read-modify-write on the User entity: the @Version check makes a concurrent
+    // apply/cancel in between fail the commit, and the executor re-reads and retries
     public ApiResponse updateLeaveBalance(LeaveBalanceUpdateDto balanceUpdateDto) {
+        return stripedUserLock.withLock(balanceUpdateDto.getEmail(),
+                () -> optimisticLockRetryExecutor.inTransaction("updateLeaveBalance",
+                        () -> updateLeaveBalanceInTransaction(balanceUpdateDto)));
+    }
+
+    private ApiResponse updateLeaveBalanceInTransaction(LeaveBalanceUpdateDto balanceUpdateDto) {
         User user = userRepository.findByEmail(balanceUpdateDto.getEmail())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + balanceUpdateDto.getEmail()));
+        // The admin sets absolute values; the ledger records the difference
+        recordAdjustment(user.getId(), LeaveType.ANNUAL, user.getAnnualLeaveBalance(), balanceUpdateDto.getAnnualLeaveBalance());
+        recordAdjustment(user.getId(), LeaveType.SICK, user.getSickLeaveBalance(), balanceUpdateDto.getSickLeaveBalance());
+        recordAdjustment(user.getId(), LeaveType.CASUAL, user.getCasualLeaveBalance(), balanceUpdateDto.getCasualLeaveBalance());
+
         // Here we take the input of all the parameters from the LeaveBalanceUpdateDto
         // Then use getters to get the values and setters to set the values in the user object
         user.setAnnualLeaveBalance(balanceUpdateDto.getAnnualLeaveBalance());
@@ -263,7 +479,15 @@ public class LeaveService {
         user.setCasualLeaveBalance(balanceUpdateDto.getCasualLeaveBalance());
         // Then save it to the database
         userRepository.save(user);
+        LeaveBalanceResponseDto balance = new LeaveBalanceResponseDto(
+                user.getAnnualLeaveBalance(), user.getSickLeaveBalance(), user.getCasualLeaveBalance());
+        AfterCommit.run(() -> balanceCache.put(balanceUpdateDto.getEmail(), balance));
+        AfterCommit.run(() -> userChangeVersions.bump(balanceUpdateDto.getEmail()));
 
         return new ApiResponse(true, "Leave balance updated successfully");
     }
+
+    private void recordAdjustment(Long userId, LeaveType leaveType, int oldBalance, int newBalance) {
+        leaveLedgerService.record(userId, leaveType, newBalance - oldBalance, LedgerEntryType.ADJUSTMENT, null);
+    }
 }
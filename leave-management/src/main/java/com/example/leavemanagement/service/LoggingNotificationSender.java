@@ -0,0 +1,22 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.model.OutboxMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+// Used when no mail server is configured (local runs): the dispatcher still drains the outbox
+public class LoggingNotificationSender implements NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingNotificationSender.class);
+
+    @Override
+    public Map<Long, Exception> send(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            log.info("Notification #{} to {}: {}", message.getId(), message.getRecipient(), message.getSubject());
+        }
+        return Map.of();
+    }
+}
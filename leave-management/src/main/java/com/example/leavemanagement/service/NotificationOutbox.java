@@ -0,0 +1,80 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.model.LeaveRequest;
+import com.example.leavemanagement.model.LeaveStatus;
+import com.example.leavemanagement.model.OutboxMessage;
+import com.example.leavemanagement.repository.OutboxMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Writes notification mails to the outbox_messages table instead of sending them.
+ *
+ * Must be called inside the transaction that changes the leave (MANDATORY): the messages commit or
+ * roll back together with the change, so a rolled-back approval never mails anyone and a committed
+ * one is never lost. The request only pays for the INSERT; OutboxDispatcher delivers later.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class NotificationOutbox {
+
+    static final String LEAVE_APPROVED = "LEAVE_APPROVED";
+    static final String LEAVE_REJECTED = "LEAVE_REJECTED";
+    static final String LEAVE_CANCELLED = "LEAVE_CANCELLED";
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    // HR mailbox(es) told about cancellations
+    @Value("${leave.notifications.admin-recipients:}")
+    private List<String> adminRecipients;
+
+    /**
+     * Tell the employee their leave was approved or rejected.
+     */
+    public void leaveDecided(LeaveRequest leaveRequest, String ownerEmail, String ownerName,
+                             LeaveStatus decision, String reason) {
+        String verb = decision == LeaveStatus.APPROVED ? "approved" : "rejected";
+        StringBuilder body = new StringBuilder()
+                .append("Hi ").append(ownerName).append(",\n\n")
+                .append("Your ").append(describe(leaveRequest)).append(" was ").append(verb).append(".\n");
+        if (reason != null && !reason.isBlank()) {
+            body.append("\nReason: ").append(reason).append('\n');
+        }
+
+        outboxMessageRepository.save(new OutboxMessage(
+                decision == LeaveStatus.APPROVED ? LEAVE_APPROVED : LEAVE_REJECTED,
+                leaveRequest.getId(),
+                ownerEmail,
+                "Your leave request #" + leaveRequest.getId() + " was " + verb,
+                body.toString()));
+    }
+
+    /**
+     * Tell HR that an employee withdrew a pending request.
+     */
+    public void leaveCancelled(LeaveRequest leaveRequest, String ownerEmail, String ownerName) {
+        for (String recipient : adminRecipients) {
+            if (recipient.isBlank()) {
+                continue;
+            }
+            outboxMessageRepository.save(new OutboxMessage(
+                    LEAVE_CANCELLED,
+                    leaveRequest.getId(),
+                    recipient.trim(),
+                    ownerName + " cancelled leave request #" + leaveRequest.getId(),
+                    ownerName + " (" + ownerEmail + ") cancelled their " + describe(leaveRequest) + ".\n"));
+        }
+    }
+
+    // e.g. "ANNUAL leave request #12 (2025-03-03 to 2025-03-07)"
+    private String describe(LeaveRequest leaveRequest) {
+        return leaveRequest.getLeaveType() + " leave request #" + leaveRequest.getId()
+                + " (" + leaveRequest.getStartDate() + " to " + leaveRequest.getEndDate() + ")";
+    }
+}
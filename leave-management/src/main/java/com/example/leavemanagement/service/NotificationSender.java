@@ -0,0 +1,19 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.model.OutboxMessage;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers outbox messages for OutboxDispatcher. SMTP when spring.mail.host is set, otherwise
+ * they are only logged (see NotificationConfig).
+ */
+public interface NotificationSender {
+
+    /**
+     * Send one batch. Returns the ids of the messages that could not be delivered, with the cause;
+     * every other message counts as delivered. Throwing fails the whole batch.
+     */
+    Map<Long, Exception> send(List<OutboxMessage> messages);
+}
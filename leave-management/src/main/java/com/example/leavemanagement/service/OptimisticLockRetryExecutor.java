@@ -0,0 +1,79 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a balance mutation in its own transaction and re-runs it when the commit loses an
+ * optimistic-lock race on the User version column.
+ *
+ * The retry has to sit outside the transaction - a transaction that hit a version conflict is
+ * already marked for rollback - which is why callers hand over the work instead of annotating
+ * their method with @Transactional. Under low contention this is one transaction and no sleep.
+ *
+ * Metrics: leave.optimistic.retries and leave.optimistic.giveups, tagged by operation.
+ */
+@Component
+public class OptimisticLockRetryExecutor {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${leave.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${leave.retry.base-backoff-ms:10}")
+    private long baseBackoffMs;
+
+    @Value("${leave.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    /**
+     * Execute the action in a new read-write transaction, retrying version conflicts with
+     * exponential backoff and full jitter. Gives up with ConcurrentUpdateException (HTTP 409).
+     */
+    public <T> T inTransaction(String operation, Supplier<T> action) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("leave.optimistic.giveups", "operation", operation).increment();
+                    throw new ConcurrentUpdateException(
+                            "The record was changed by another request, please try again", e);
+                }
+                meterRegistry.counter("leave.optimistic.retries", "operation", operation).increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    // Full jitter: sleep a random time in [0, min(max, base * 2^attempt)) so that the
+    // requests that collided do not collide again on the next attempt
+    private void backOff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
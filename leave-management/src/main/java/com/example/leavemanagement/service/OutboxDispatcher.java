@@ -0,0 +1,201 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.model.OutboxMessage;
+import com.example.leavemanagement.model.OutboxStatus;
+import com.example.leavemanagement.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains the notification outbox (see NotificationOutbox) in batches.
+ *
+ * Each batch is claimed in a short transaction: the due ids are read, then stamped with a random
+ * claim token and a lease in one conditional UPDATE, so two nodes polling at once never send the
+ * same row. The NotificationSender is called with no transaction or connection held, and the
+ * outcome is written back in a second short transaction. If a node dies while sending, its rows
+ * become due again when the lease runs out - delivery is at least once.
+ *
+ * A failed message is retried with exponential backoff (base * 2^(attempts - 1), capped) and moved
+ * to DEAD after leave.outbox.max-attempts. Dead rows stay in the table for inspection; setting them
+ * back to PENDING requeues them. Sent rows are purged after leave.outbox.retention.
+ *
+ * Metrics: leave.outbox.sent, leave.outbox.retries, leave.outbox.dead, and leave.outbox.delay
+ * (from the change being written to the message being delivered).
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private NotificationSender notificationSender;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${leave.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${leave.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${leave.outbox.base-backoff:30s}")
+    private Duration baseBackoff;
+
+    @Value("${leave.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    // Longer than the sender can take for one batch, or a slow batch gets sent twice
+    @Value("${leave.outbox.lease:5m}")
+    private Duration lease;
+
+    @Value("${leave.outbox.retention:7d}")
+    private Duration retention;
+
+    // Scheduled runs must not overlap on one node (the claim already keeps nodes apart)
+    private final ReentrantLock running = new ReentrantLock();
+
+    @Scheduled(cron = "${leave.outbox.dispatch-cron:*/5 * * * * *}")
+    public void dispatchScheduled() {
+        if (!running.tryLock()) {
+            return;
+        }
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            // The rows stay claimed until the lease runs out and are picked up again then
+            log.warn("Outbox dispatch failed", e);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Send everything that is due, one batch at a time. Returns the number of messages handled
+     * (delivered, rescheduled or dead-lettered).
+     */
+    public int dispatch() {
+        int handled = 0;
+        while (true) {
+            String token = UUID.randomUUID().toString();
+            List<OutboxMessage> batch = claim(token);
+            if (batch.isEmpty()) {
+                return handled;
+            }
+            deliver(batch, token);
+            handled += batch.size();
+            if (batch.size() < batchSize) {
+                return handled;
+            }
+        }
+    }
+
+    /**
+     * Delete delivered messages older than the retention.
+     */
+    @Scheduled(cron = "${leave.outbox.purge-cron:0 15 3 * * *}")
+    public int purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer deleted = new TransactionTemplate(transactionManager).execute(status ->
+                outboxMessageRepository.deleteSentBefore(OutboxStatus.SENT, cutoff));
+        log.info("Purged {} sent outbox messages older than {}", deleted, cutoff);
+        return deleted;
+    }
+
+    private List<OutboxMessage> claim(String token) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> due = outboxMessageRepository.findDueIds(OutboxStatus.PENDING, now, Limit.of(batchSize));
+            if (due.isEmpty()) {
+                return List.of();
+            }
+            outboxMessageRepository.claim(due, OutboxStatus.PENDING, token, now, now.plus(lease));
+            return outboxMessageRepository.findByClaimTokenOrderById(token);
+        });
+    }
+
+    private void deliver(List<OutboxMessage> batch, String token) {
+        Map<Long, Exception> failures;
+        try {
+            failures = notificationSender.send(batch);
+        } catch (RuntimeException e) {
+            failures = new HashMap<>();
+            for (OutboxMessage message : batch) {
+                failures.put(message.getId(), e);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sent = new ArrayList<>();
+        for (OutboxMessage message : batch) {
+            if (!failures.containsKey(message.getId())) {
+                sent.add(message.getId());
+                meterRegistry.timer("leave.outbox.delay").record(Duration.between(message.getCreatedAt(), now));
+            }
+        }
+
+        Map<Long, Exception> failed = failures;
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                outboxMessageRepository.markSent(sent, OutboxStatus.SENT, token, now);
+            }
+            for (OutboxMessage message : batch) {
+                Exception cause = failed.get(message.getId());
+                if (cause != null) {
+                    recordFailure(message, token, cause, now);
+                }
+            }
+        });
+        meterRegistry.counter("leave.outbox.sent").increment(sent.size());
+    }
+
+    private void recordFailure(OutboxMessage message, String token, Exception cause, LocalDateTime now) {
+        int attempts = message.getAttempts() + 1;
+        String error = truncate(cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        if (attempts >= maxAttempts) {
+            outboxMessageRepository.markFailed(message.getId(), token, OutboxStatus.DEAD, attempts, now, error);
+            meterRegistry.counter("leave.outbox.dead", "event_type", message.getEventType()).increment();
+            log.warn("Outbox message #{} ({} to {}) dead after {} attempts: {}",
+                    message.getId(), message.getEventType(), message.getRecipient(), attempts, error);
+        } else {
+            outboxMessageRepository.markFailed(message.getId(), token, OutboxStatus.PENDING, attempts,
+                    now.plus(backoff(attempts)), error);
+            meterRegistry.counter("leave.outbox.retries", "event_type", message.getEventType()).increment();
+        }
+    }
+
+    // 30s, 1m, 2m, 4m, ... up to the cap
+    Duration backoff(int attempts) {
+        Duration delay = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
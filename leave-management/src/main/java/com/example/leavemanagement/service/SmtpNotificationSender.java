@@ -0,0 +1,63 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.model.OutboxMessage;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain-text mail over the auto-configured JavaMailSender (spring.mail.*).
+ *
+ * A batch goes out over a single SMTP connection; when some recipients are refused, MailSendException
+ * says which messages failed and the rest count as delivered. Any other MailException (server down,
+ * authentication) fails the whole batch.
+ */
+public class SmtpNotificationSender implements NotificationSender {
+
+    private final JavaMailSender mailSender;
+    private final String from;
+
+    public SmtpNotificationSender(JavaMailSender mailSender, String from) {
+        this.mailSender = mailSender;
+        this.from = from;
+    }
+
+    @Override
+    public Map<Long, Exception> send(List<OutboxMessage> messages) {
+        SimpleMailMessage[] mails = new SimpleMailMessage[messages.size()];
+        // The failures are keyed by the SimpleMailMessage instance we passed in
+        Map<SimpleMailMessage, Long> ids = new IdentityHashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            OutboxMessage message = messages.get(i);
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setFrom(from);
+            mail.setTo(message.getRecipient());
+            mail.setSubject(message.getSubject());
+            mail.setText(message.getBody());
+            mails[i] = mail;
+            ids.put(mail, message.getId());
+        }
+
+        try {
+            mailSender.send(mails);
+            return Map.of();
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                throw e;
+            }
+            Map<Long, Exception> failures = new HashMap<>();
+            e.getFailedMessages().forEach((mail, cause) -> {
+                Long id = ids.get(mail);
+                if (id != null) {
+                    failures.put(id, cause);
+                }
+            });
+            return failures;
+        }
+    }
+}
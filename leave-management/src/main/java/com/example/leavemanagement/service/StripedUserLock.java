@@ -0,0 +1,139 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process serialization of leave mutations per user.
+ *
+ * A fixed array of locks is shared by all users: a user always maps to the same stripe, so two
+ * requests for one user run one after the other, while requests for different users almost
+ * always land on different stripes and run in parallel. Memory stays constant no matter how
+ * many users there are. This only coordinates a single node - the conditional UPDATEs and the
+ * version column still guard the database across nodes.
+ *
+ * ReentrantLock rather than synchronized, so a waiting virtual thread does not pin its carrier.
+ *
+ * Metrics: leave.lock.wait (timer with histogram), plus per-stripe contention counters that
+ * back the "userlocks" actuator endpoint.
+ */
+@Component
+public class StripedUserLock {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Rounded up to a power of two so the stripe index is a mask, not a modulo
+    @Value("${leave.locks.stripes:256}")
+    private int requestedStripes;
+
+    @Value("${leave.locks.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    private ReentrantLock[] stripes;
+    private int mask;
+    private AtomicLongArray contendedCounts;
+    private AtomicLongArray waitNanos;
+    private Timer waitTimer;
+
+    @PostConstruct
+    void init() {
+        int size = Integer.highestOneBit(Math.max(1, requestedStripes - 1)) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+        contendedCounts = new AtomicLongArray(size);
+        waitNanos = new AtomicLongArray(size);
+        waitTimer = Timer.builder("leave.lock.wait")
+                .description("Time spent waiting for a per-user leave lock")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the action while holding the stripe lock for this user.
+     * Waiting longer than leave.locks.wait-timeout-ms fails with ConcurrentUpdateException (HTTP 409).
+     */
+    public <T> T withLock(String userKey, Supplier<T> action) {
+        int stripe = stripeFor(userKey);
+        ReentrantLock lock = stripes[stripe];
+
+        // Fast path: no contention, no clock reads
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            contendedCounts.incrementAndGet(stripe);
+            boolean acquired;
+            try {
+                acquired = lock.tryLock(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the user lock", e);
+            }
+            long waited = System.nanoTime() - start;
+            waitNanos.addAndGet(stripe, waited);
+            waitTimer.record(waited, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                throw new ConcurrentUpdateException("Too many concurrent changes for this user, please try again", null);
+            }
+        } else {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The most contended stripes, hottest first: index, times a caller had to wait, total wait.
+     */
+    public List<Map<String, Object>> hottestStripes(int limit) {
+        List<Integer> contended = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            if (contendedCounts.get(i) > 0) {
+                contended.add(i);
+            }
+        }
+        contended.sort(Comparator.comparingLong((Integer i) -> contendedCounts.get(i)).reversed());
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i : contended.subList(0, Math.min(limit, contended.size()))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("stripe", i);
+            entry.put("contended", contendedCounts.get(i));
+            entry.put("totalWaitMs", TimeUnit.NANOSECONDS.toMillis(waitNanos.get(i)));
+            entry.put("queued", stripes[i].getQueueLength());
+            result.add(entry);
+        }
+        return result;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    int stripeFor(String userKey) {
+        // Spread the high bits down, as HashMap does, so similar keys do not share low bits
+        int h = userKey.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.leavemanagement.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /actuator/userlocks - the hottest per-user lock stripes (admin only, like the rest of /actuator)
+@Component
+@Endpoint(id = "userlocks")
+public class StripedUserLockEndpoint {
+
+    private static final int TOP_STRIPES = 10;
+
+    @Autowired
+    private StripedUserLock stripedUserLock;
+
+    @ReadOperation
+    public Map<String, Object> userLocks() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("stripes", stripedUserLock.stripeCount());
+        body.put("hottest", stripedUserLock.hottestStripes(TOP_STRIPES));
+        return body;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.config.ReplicaLagTracker;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory change version per user, behind the ETags of GET /api/leave/my-requests and
+ * GET /api/leave/balance. Anything that changes a user's leave requests or balances bumps it after
+ * commit (see LeaveService; bulk jobs bump everyone), so an unchanged version means unchanged data
+ * and a poll with a matching If-None-Match is answered 304 without a query.
+ *
+ * Versions come from one node-wide counter, so they only ever go up. A user seen for the first
+ * time (or whose entry expired) gets a fresh value rather than starting again at 1, and the ETag
+ * carries a per-start epoch, so an ETag from before a restart never matches.
+ *
+ * Read the version BEFORE loading the data it describes: then an ETag can only be older than its
+ * body, which costs one extra 200, never a wrongly served 304. That only holds if the body is not
+ * read from a replica that has not replayed the change yet, so a bump also keeps the affected
+ * user's reads on the primary for a while (ReplicaLagTracker) - whoever made the change.
+ *
+ * Like BalanceCache this is per node; a write on another node is seen here after the TTL at most.
+ */
+@Component
+public class UserChangeVersions {
+
+    @Value("${leave.change-versions.max-size:100000}")
+    private long maxSize;
+
+    @Value("${leave.change-versions.ttl:10m}")
+    private Duration ttl;
+
+    // Only present when a read replica is configured (see ReadReplicaConfig)
+    @Autowired(required = false)
+    private ReplicaLagTracker replicaLagTracker;
+
+    private final String epoch = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+    private final AtomicLong counter = new AtomicLong();
+    private Cache<String, Long> versions;
+
+    @PostConstruct
+    void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public long current(String userEmail) {
+        return versions.get(userEmail, email -> counter.incrementAndGet());
+    }
+
+    public void bump(String userEmail) {
+        // Before the new version is visible, so no read that sees it can go to the replica
+        if (replicaLagTracker != null) {
+            replicaLagTracker.recordWrite(userEmail);
+        }
+        versions.put(userEmail, counter.incrementAndGet());
+    }
+
+    // Everyone gets a new version on their next read
+    public void bumpAll() {
+        if (replicaLagTracker != null) {
+            replicaLagTracker.recordBulkWrite();
+        }
+        versions.invalidateAll();
+    }
+
+    /**
+     * Strong ETag (quoted) for the user's current version.
+     */
+    public String etag(String userEmail) {
+        return "\"" + epoch + "-" + current(userEmail) + "\"";
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.leavemanagement.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Decides which days are non-working regardless of the holiday calendar.
+ *
+ * By default WorkingDayCalendar builds one from leave.calendar.weekend-days; declare a WeekendRule
+ * bean to replace it (e.g. alternate Saturdays off).
+ */
+@FunctionalInterface
+public interface WeekendRule {
+
+    boolean isWeekend(LocalDate date);
+
+    static WeekendRule daysOfWeek(Set<DayOfWeek> weekendDays) {
+        // Copy so later changes to the caller's set cannot change the rule
+        Set<DayOfWeek> days = weekendDays.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(weekendDays);
+        return date -> days.contains(date.getDayOfWeek());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.leavemanagement.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Counts the working days in a leave - what is actually charged against a balance.
+ *
+ * A day is a working day unless the WeekendRule says it is a weekend or it is listed in one of
+ * the holiday files (leave.calendar.holiday-files, CSV or ICS, see HolidayFileParser).
+ *
+ * Each calendar year is precomputed once into a bitset of working days plus a prefix-sum array,
+ * so a count inside one year is two array reads and a subtraction, with no allocation. A leave
+ * spanning a year boundary adds one cached total per full year in between.
+ */
+@Component
+public class WorkingDayCalendar {
+
+    // Years we keep a precomputed table for; anything outside is computed on the fly
+    private static final int FIRST_CACHED_YEAR = 1970;
+    private static final int LAST_CACHED_YEAR = 2199;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    // Optional: a custom WeekendRule bean takes precedence over leave.calendar.weekend-days
+    @Autowired(required = false)
+    private WeekendRule weekendRule;
+
+    @Value("${leave.calendar.weekend-days:SATURDAY,SUNDAY}")
+    private Set<DayOfWeek> weekendDays;
+
+    @Value("${leave.calendar.holiday-files:}")
+    private String[] holidayFiles;
+
+    private Set<LocalDate> holidays;
+    private AtomicReferenceArray<WorkingYear> years;
+
+    @PostConstruct
+    void init() {
+        if (weekendRule == null) {
+            weekendRule = WeekendRule.daysOfWeek(weekendDays);
+        }
+        holidays = new HashSet<>();
+        for (String location : holidayFiles) {
+            if (!location.isBlank()) {
+                holidays.addAll(loadHolidays(location.strip()));
+            }
+        }
+        years = new AtomicReferenceArray<>(LAST_CACHED_YEAR - FIRST_CACHED_YEAR + 1);
+    }
+
+    /**
+     * Number of working days from start to end, both inclusive. Zero if end is before start.
+     */
+    public int countWorkingDays(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return 0;
+        }
+        if (start.getYear() == end.getYear()) {
+            return year(start.getYear()).count(start.getDayOfYear(), end.getDayOfYear());
+        }
+        WorkingYear first = year(start.getYear());
+        int total = first.count(start.getDayOfYear(), first.length())
+                + year(end.getYear()).count(1, end.getDayOfYear());
+        for (int y = start.getYear() + 1; y < end.getYear(); y++) {
+            total += year(y).total();
+        }
+        return total;
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        return year(date.getYear()).isWorkingDay(date.getDayOfYear());
+    }
+
+    // Built on first use; two threads racing on the same year build identical tables, so either may win
+    private WorkingYear year(int year) {
+        if (year < FIRST_CACHED_YEAR || year > LAST_CACHED_YEAR) {
+            return buildYear(year);
+        }
+        int slot = year - FIRST_CACHED_YEAR;
+        WorkingYear cached = years.get(slot);
+        if (cached == null) {
+            cached = buildYear(year);
+            years.compareAndSet(slot, null, cached);
+        }
+        return cached;
+    }
+
+    private WorkingYear buildYear(int year) {
+        LocalDate day = LocalDate.of(year, 1, 1);
+        int length = day.lengthOfYear();
+        long[] bits = new long[(length + 64) / 64];
+        int[] prefix = new int[length + 1];
+        for (int dayOfYear = 1; dayOfYear <= length; dayOfYear++, day = day.plusDays(1)) {
+            boolean working = !weekendRule.isWeekend(day) && !holidays.contains(day);
+            if (working) {
+                bits[dayOfYear >>> 6] |= 1L << dayOfYear;
+            }
+            prefix[dayOfYear] = prefix[dayOfYear - 1] + (working ? 1 : 0);
+        }
+        return new WorkingYear(bits, prefix);
+    }
+
+    private Set<LocalDate> loadHolidays(String location) {
+        Resource resource = resourceLoader.getResource(location);
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            return HolidayFileParser.parse(location, reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read holiday calendar " + location, e);
+        }
+    }
+
+    // Indexed by day-of-year (1-based): bit n is set when day n is a working day, and
+    // prefix[n] is the number of working days from Jan 1st up to and including day n
+    private static final class WorkingYear {
+
+        private final long[] bits;
+        private final int[] prefix;
+
+        private WorkingYear(long[] bits, int[] prefix) {
+            this.bits = bits;
+            this.prefix = prefix;
+        }
+
+        boolean isWorkingDay(int dayOfYear) {
+            return (bits[dayOfYear >>> 6] & (1L << dayOfYear)) != 0;
+        }
+
+        int count(int fromDayOfYear, int toDayOfYear) {
+            return prefix[toDayOfYear] - prefix[fromDayOfYear - 1];
+        }
+
+        int length() {
+            return prefix.length - 1;
+        }
+
+        int total() {
+            return prefix[prefix.length - 1];
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveRolloverResultDto;
+import com.example.leavemanagement.model.LeaveType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Year-end carry-over and reset for every user.
+ *
+ * For each leave type the new balance is LEAST(balance, carry-over cap) + yearly grant, applied
+ * to all users by a single UPDATE - no entities are loaded. The grants default to 0, because the
+ * monthly accrual job (LeaveAccrualService) already builds balances up; a non-zero grant is only
+ * accepted when the accrual cron is disabled, otherwise every user would be credited twice.
+ *
+ * Before updating, the same rows are read with SELECT ... FOR UPDATE and streamed to a CSV report
+ * (one before/after line per user). The lock keeps concurrent leave applications out until commit,
+ * so the report matches what the UPDATE did. The ledger gets one ROLLOVER entry per changed balance.
+ * A dry run only writes the report, without the lock, so it never holds up leave applications.
+ */
+@Service
+public class YearEndRolloverService {
+
+    private static final DateTimeFormatter REPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Users not yet rolled over for the year; shared by the report query and the UPDATE
+    private static final String PENDING_USERS = "(last_rollover_year IS NULL OR last_rollover_year < ?)";
+
+    private static final String SELECT_REPORT =
+            "SELECT id, email, annual_leave_balance, LEAST(annual_leave_balance, ?) + ? AS annual_after, " +
+            "sick_leave_balance, LEAST(sick_leave_balance, ?) + ? AS sick_after, " +
+            "casual_leave_balance, LEAST(casual_leave_balance, ?) + ? AS casual_after " +
+            "FROM users WHERE " + PENDING_USERS + " ORDER BY id";
+
+    private static final String ROLLOVER =
+            "UPDATE users SET annual_leave_balance = LEAST(annual_leave_balance, ?) + ?, " +
+            "sick_leave_balance = LEAST(sick_leave_balance, ?) + ?, " +
+            "casual_leave_balance = LEAST(casual_leave_balance, ?) + ?, " +
+            "version = version + 1, last_rollover_year = ? " +
+            "WHERE " + PENDING_USERS;
+
+    // One ledger entry per user whose balance of this type actually changes
+    private static final String RECORD_ROLLOVER =
+            "INSERT INTO leave_ledger (user_id, leave_type, delta, entry_type, created_at) " +
+            "SELECT id, ?, LEAST(%1$s, ?) + ? - %1$s, 'ROLLOVER', ? FROM users " +
+            "WHERE " + PENDING_USERS + " AND LEAST(%1$s, ?) + ? <> %1$s";
+
+    private static final int REPORT_FETCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private UserChangeVersions userChangeVersions;
+
+    @Value("${leave.rollover.annual-carry-over-cap:5}")
+    private int annualCarryOverCap;
+
+    @Value("${leave.rollover.annual-grant:0}")
+    private int annualGrant;
+
+    @Value("${leave.rollover.sick-carry-over-cap:0}")
+    private int sickCarryOverCap;
+
+    @Value("${leave.rollover.sick-grant:0}")
+    private int sickGrant;
+
+    @Value("${leave.rollover.casual-carry-over-cap:0}")
+    private int casualCarryOverCap;
+
+    @Value("${leave.rollover.casual-grant:0}")
+    private int casualGrant;
+
+    @Value("${leave.rollover.report-dir:${java.io.tmpdir}/leave-rollover}")
+    private String reportDir;
+
+    @Value("${leave.accrual.cron:0 0 1 1 * *}")
+    private String accrualCron;
+
+    // Yearly grants and monthly accrual are two ways to fill the same balances - only one may be on
+    @PostConstruct
+    void checkGrantsAgainstAccrual() {
+        boolean accrualEnabled = !Scheduled.CRON_DISABLED.equals(accrualCron);
+        if (accrualEnabled && (annualGrant > 0 || sickGrant > 0 || casualGrant > 0)) {
+            throw new IllegalStateException("leave.rollover.*-grant is set (" + annualGrant + "/" + sickGrant + "/"
+                    + casualGrant + ") while the monthly accrual is enabled (leave.accrual.cron=" + accrualCron
+                    + "); every user would be credited twice. Set the grants to 0 or leave.accrual.cron=-");
+        }
+    }
+
+    /**
+     * Close the given fiscal year for every user who has not been rolled over for it yet.
+     */
+    public LeaveRolloverResultDto rollover(int fiscalYear, boolean dryRun) {
+        // Fiscal years follow the calendar. Closing one early would apply the caps and grants ahead of
+        // time, and the per-year guard would then treat every earlier year as already done
+        int lastCompletedYear = Year.now().getValue() - 1;
+        if (fiscalYear > lastCompletedYear) {
+            throw new IllegalArgumentException("Fiscal year " + fiscalYear + " has not ended yet; the latest year that can be "
+                    + "rolled over is " + lastCompletedYear);
+        }
+
+        Path report = reportPath(fiscalYear, dryRun);
+        if (dryRun) {
+            // Report only: no row locks, no ledger entries, no UPDATE
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            Integer reported = readOnly.execute(status -> writeReport(fiscalYear, report, false));
+            return new LeaveRolloverResultDto(fiscalYear, true, reported, report.toString());
+        }
+
+        Integer usersAffected = new TransactionTemplate(transactionManager).execute(status -> {
+            writeReport(fiscalYear, report, true);
+            // Ledger first: its INSERT ... SELECT needs the balances from before the UPDATE
+            LocalDateTime now = LocalDateTime.now();
+            recordRollover(LeaveType.ANNUAL, "annual_leave_balance", annualCarryOverCap, annualGrant, fiscalYear, now);
+            recordRollover(LeaveType.SICK, "sick_leave_balance", sickCarryOverCap, sickGrant, fiscalYear, now);
+            recordRollover(LeaveType.CASUAL, "casual_leave_balance", casualCarryOverCap, casualGrant, fiscalYear, now);
+            return jdbcTemplate.update(ROLLOVER,
+                    annualCarryOverCap, annualGrant, sickCarryOverCap, sickGrant, casualCarryOverCap, casualGrant,
+                    fiscalYear, fiscalYear);
+        });
+        balanceCache.invalidateAll();
+        userChangeVersions.bumpAll();
+        return new LeaveRolloverResultDto(fiscalYear, false, usersAffected, report.toString());
+    }
+
+    private void recordRollover(LeaveType leaveType, String balanceColumn, int cap, int grant,
+                                int fiscalYear, LocalDateTime now) {
+        jdbcTemplate.update(String.format(RECORD_ROLLOVER, balanceColumn),
+                leaveType.name(), cap, grant, now, fiscalYear, cap, grant);
+    }
+
+    // Streams row by row: neither the result set nor the report is ever held in memory. Returns the row count
+    private int writeReport(int fiscalYear, Path report, boolean lockRows) {
+        int[] rows = {0};
+        try (BufferedWriter writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            writer.write("user_id,email,annual_before,annual_after,sick_before,sick_after,casual_before,casual_after\n");
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(lockRows ? SELECT_REPORT + " FOR UPDATE" : SELECT_REPORT);
+                statement.setInt(1, annualCarryOverCap);
+                statement.setInt(2, annualGrant);
+                statement.setInt(3, sickCarryOverCap);
+                statement.setInt(4, sickGrant);
+                statement.setInt(5, casualCarryOverCap);
+                statement.setInt(6, casualGrant);
+                statement.setInt(7, fiscalYear);
+                statement.setFetchSize(REPORT_FETCH_SIZE);
+                return statement;
+            }, rs -> {
+                try {
+                    writer.write(rs.getLong("id") + ",");
+                    LeaveExportService.writeCsvField(writer, rs.getString("email"));
+                    writer.write("," + rs.getInt("annual_leave_balance") + "," + rs.getInt("annual_after")
+                            + "," + rs.getInt("sick_leave_balance") + "," + rs.getInt("sick_after")
+                            + "," + rs.getInt("casual_leave_balance") + "," + rs.getInt("casual_after") + "\n");
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write rollover report " + report, e);
+        }
+        return rows[0];
+    }
+
+    private Path reportPath(int fiscalYear, boolean dryRun) {
+        try {
+            Path directory = Files.createDirectories(Paths.get(reportDir));
+            String name = "rollover-" + fiscalYear + (dryRun ? "-dry-run-" : "-")
+                    + LocalDateTime.now().format(REPORT_TIMESTAMP) + ".csv";
+            return directory.resolve(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create rollover report directory " + reportDir, e);
+        }
+    }
+}
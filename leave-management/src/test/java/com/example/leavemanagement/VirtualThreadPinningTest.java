@@ -0,0 +1,84 @@
+package com.example.leavemanagement;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Requests run on virtual threads, and on Java 21 a virtual thread that blocks inside a monitor
+ * (synchronized method or block) pins its carrier thread. A pinned carrier doing JDBC or HTTP I/O
+ * takes a whole core's worth of request capacity away. Rather than trying to prove which monitors
+ * can reach I/O, application code does not use monitors at all: use ReentrantLock (see
+ * StripedUserLock, TokenRevocationList). The check reads the compiled bytecode, so it also
+ * catches generated code such as Lombok's @Synchronized.
+ */
+class VirtualThreadPinningTest {
+
+    // "ClassName#method" entries that hold a monitor around in-memory work only, reviewed by hand
+    private static final Set<String> ALLOWED = Set.of();
+
+    @Test
+    @DisplayName("Application code should not hold monitors that can pin virtual threads")
+    void shouldNotUseSynchronized() throws IOException, URISyntaxException {
+        Path classes = Path.of(LeaveManagementApplication.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        List<String> offenders = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(classes)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".class")).toList()) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    new ClassReader(in).accept(new MonitorFinder(offenders), ClassReader.SKIP_DEBUG);
+                }
+            }
+        }
+        offenders.removeAll(ALLOWED);
+
+        assertTrue(offenders.isEmpty(), "synchronized pins virtual threads, use a ReentrantLock instead: " + offenders);
+    }
+
+    private static class MonitorFinder extends ClassVisitor {
+
+        private final List<String> offenders;
+        private String className;
+
+        MonitorFinder(List<String> offenders) {
+            super(Opcodes.ASM9);
+            this.offenders = offenders;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            className = name.replace('/', '.');
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            String method = className + "#" + name;
+            if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                offenders.add(method);
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public void visitInsn(int opcode) {
+                    if (opcode == Opcodes.MONITORENTER && !offenders.contains(method)) {
+                        offenders.add(method);
+                    }
+                }
+            };
+        }
+    }
+}
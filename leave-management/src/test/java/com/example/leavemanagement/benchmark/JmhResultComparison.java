@@ -0,0 +1,112 @@
+package com.example.leavemanagement.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (the -rf json output the benchmark profile writes to
+ * target/jmh-result.json) benchmark by benchmark, matching on name + @Param values.
+ *
+ * A benchmark counts as a regression when it got worse by more than the threshold AND the
+ * difference is larger than both runs' error bars; "worse" depends on the mode (higher time for
+ * avgt/sample/ss, lower ops for thrpt). Exits with 1 if anything regressed, so it can gate a build.
+ *
+ * Run with: mvn -Pbenchmark verify -Dbenchmark.main=com.example.leavemanagement.benchmark.JmhResultComparison
+ *           -Djmh.args="baseline.json target/jmh-result.json --threshold 10" -Dbenchmark.output=
+ */
+public class JmhResultComparison {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: JmhResultComparison <baseline.json> <candidate.json> [--threshold percent]");
+            System.exit(2);
+        }
+        double threshold = thresholdArg(args, 10.0);
+
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> candidate = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %6s %14s %14s %9s%n", "benchmark", "mode", "baseline", "candidate", "change");
+        for (Map.Entry<String, Score> entry : candidate.entrySet()) {
+            Score after = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %6s %14s %14.3f %9s%n", entry.getKey(), after.mode, "-", after.score, "new");
+                continue;
+            }
+
+            double change = (after.score - before.score) / before.score * 100;
+            // Positive "worse" means slower, whatever the unit
+            double worse = after.higherIsBetter() ? -change : change;
+            boolean significant = Math.abs(after.score - before.score) > Math.max(before.error, after.error);
+            boolean regressed = worse > threshold && significant;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %6s %14.3f %14.3f %+8.1f%% %s%n", entry.getKey(), after.mode,
+                    before.score, after.score, change, regressed ? "REGRESSION" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!candidate.containsKey(name)) {
+                System.out.printf("%-70s %6s %14.3f %14s %9s%n", name, baseline.get(name).mode, baseline.get(name).score, "-", "missing");
+            }
+        }
+
+        System.out.printf("%n%d regression(s) above %.1f%%%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(File file) throws Exception {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : objectMapper.readTree(file)) {
+            JsonNode metric = result.get("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key(result), new Score(result.get("mode").asText(), metric.get("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error));
+        }
+        return scores;
+    }
+
+    // Short benchmark name plus sorted params, e.g. LeaveMappingBenchmark.convertToDtos{size=200}
+    private static String key(JsonNode result) {
+        String name = result.get("benchmark").asText();
+        int method = name.lastIndexOf('.');
+        int type = name.lastIndexOf('.', method - 1);
+        String key = name.substring(type + 1);
+
+        Map<String, String> params = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> param = fields.next();
+            params.put(param.getKey(), param.getValue().asText());
+        }
+        return params.isEmpty() ? key : key + params;
+    }
+
+    private static double thresholdArg(String[] args, double defaultValue) {
+        for (int i = 2; i < args.length - 1; i++) {
+            if (args[i].equals("--threshold")) {
+                return Double.parseDouble(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+
+    private record Score(String mode, double score, double error) {
+
+        boolean higherIsBetter() {
+            return mode.equals("thrpt");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.leavemanagement.benchmark;
+
+import com.example.leavemanagement.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Per-request JWT cost in JwtAuthenticationFilter: the old path (new key + parser, three full
+ * verifications) vs. one verification with the prebuilt parser, with and without the verified-token cache.
+ * {@code users} distinct tokens are cycled through, so a bigger pool means colder caches.
+ *
+ * Run with: mvn -Pbenchmark verify -Djmh.args="JwtAuth -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "s3cUr3!JwT$eCrEtK3y@1234567890abcdef";
+
+    @Param({"1", "1000"})
+    private int users;
+
+    private JwtUtils cached;
+    private JwtParser prebuiltParser;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cached = jwtUtils();
+        // JwtUtils' parser without the cache in front (a size-0 Caffeine cache still evicts asynchronously)
+        prebuiltParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+
+        tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = cached.generateToken("user" + i + "@company.com", "EMPLOYEE");
+        }
+    }
+
+    private static JwtUtils jwtUtils() {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(utils, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(utils, "verifiedCacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(utils, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(utils, "init");
+        return utils;
+    }
+
+    private String nextToken() {
+        String token = tokens[next];
+        next = (next + 1) % tokens.length;
+        return token;
+    }
+
+    @Benchmark
+    public boolean before() {
+        // extractUsername in the filter, then extractUsername + extractExpiration in validateToken
+        String token = nextToken();
+        String email = legacyClaims(token).getSubject();
+        return email.equals(legacyClaims(token).getSubject()) && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = prebuiltParser.parseClaimsJws(nextToken()).getBody();
+        return claims.getSubject() != null && !claims.getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParseCached() {
+        Claims claims = cached.parseAndVerify(nextToken());
+        return claims.getSubject() != null && !claims.getExpiration().before(new Date());
+    }
+
+    // What JwtUtils did before: a fresh key and parser for every claim lookup
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
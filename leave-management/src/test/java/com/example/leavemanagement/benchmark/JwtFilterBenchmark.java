@@ -0,0 +1,110 @@
+package com.example.leavemanagement.benchmark;
+
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.repository.TokenRevocationRepository;
+import com.example.leavemanagement.repository.UserRepository;
+import com.example.leavemanagement.security.JwtAuthenticationFilter;
+import com.example.leavemanagement.security.JwtUtils;
+import com.example.leavemanagement.security.TokenRevocationList;
+import com.example.leavemanagement.security.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JwtAuthenticationFilter end to end for one request carrying a jwt cookie: cookie lookup,
+ * verification (cached after the first request), revocation check, principal from the
+ * UserDetails cache, SecurityContext setup. The database is a mock that the caches keep cold.
+ * Also token generation, which runs once per login.
+ *
+ * Run with: mvn -Pbenchmark verify -Djmh.args="JwtFilter"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "s3cUr3!JwT$eCrEtK3y@1234567890abcdef");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(jwtUtils, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByEmail("john.doe@company.com")).thenReturn(Optional.of(
+                new User(1L, "John Doe", "john.doe@company.com", "hash", Role.EMPLOYEE, null)));
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl();
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userDetailsService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(userDetailsService, "cacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(userDetailsService, "cacheTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.invokeMethod(userDetailsService, "init");
+
+        TokenRevocationRepository tokenRevocationRepository = Mockito.mock(TokenRevocationRepository.class);
+        Mockito.when(tokenRevocationRepository.findByExpiresAtAfter(Mockito.any())).thenReturn(List.of());
+        TokenRevocationList tokenRevocationList = new TokenRevocationList();
+        ReflectionTestUtils.setField(tokenRevocationList, "tokenRevocationRepository", tokenRevocationRepository);
+        ReflectionTestUtils.setField(tokenRevocationList, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tokenRevocationList, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(tokenRevocationList, "expectedTokens", 10_000);
+        ReflectionTestUtils.invokeMethod(tokenRevocationList, "init");
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "tokenRevocationList", tokenRevocationList);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+
+        token = jwtUtils.generateToken("john.doe@company.com", "EMPLOYEE");
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/leave/my-requests");
+        request.setCookies(new Cookie("jwt", token));
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken("john.doe@company.com", "EMPLOYEE");
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.leavemanagement.benchmark;
+
+import com.example.leavemanagement.LeaveManagementApplication;
+import com.example.leavemanagement.service.WorkingDayCalendar;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of the employee hot paths: a mix of POST /api/leave/apply and
+ * GET /api/leave/my-requests over HTTP, with per-endpoint HdrHistogram latencies. Like
+ * ThreadModelLoadBenchmark it is a plain main, not JMH: it boots the application (test profile,
+ * in-memory H2 in PostgreSQL mode unless --datasource-url is given), signs up and logs in
+ * --users employees through AuthController, warms up, then measures.
+ *
+ * Options:
+ *   --clients 64          concurrent clients (one virtual thread each)
+ *   --seconds 30          measured duration, after --warmup seconds (default 10)
+ *   --users 100           seeded employees; clients share them round-robin
+ *   --apply-percent 20    share of requests that apply for leave, the rest list my requests
+ *   --rate 0              total requests/s across all clients; 0 = closed loop (as fast as
+ *                         responses come back). With a rate, latency is measured from when each
+ *                         request was due, so a stalled server is not hidden (coordinated omission)
+ *   --report-dir target/load-reports, --label run
+ *   --baseline <dir>/summary.json   print the change against an earlier run's summary
+ *
+ * Writes <report-dir>/<label>/summary.json (throughput, status codes, percentiles per endpoint;
+ * stable key order, so two runs diff cleanly) and one <endpoint>.hgrm percentile distribution per
+ * endpoint, which HdrHistogram's plotter can overlay across releases.
+ *
+ * Run with: mvn -Pbenchmark verify -Dbenchmark.main=com.example.leavemanagement.benchmark.LeaveApiLoadBenchmark
+ *           -Djmh.args="--clients 200 --apply-percent 10 --label 1.4.0" -Dbenchmark.output=
+ */
+public class LeaveApiLoadBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    // Microsecond resolution, up to a minute, 3 significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public static void main(String[] args) throws Exception {
+        int clients = intArg(args, "--clients", 64);
+        int seconds = intArg(args, "--seconds", 30);
+        int warmupSeconds = intArg(args, "--warmup", 10);
+        int users = intArg(args, "--users", 100);
+        int applyPercent = intArg(args, "--apply-percent", 20);
+        int rate = intArg(args, "--rate", 0);
+        String datasourceUrl = stringArg(args, "--datasource-url", null);
+        File reportDir = new File(stringArg(args, "--report-dir", "target/load-reports"), stringArg(args, "--label", "run"));
+        String baseline = stringArg(args, "--baseline", null);
+
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "management.server.port=0",
+                "logging.level.root=WARN"));
+        if (datasourceUrl != null) {
+            properties.add("spring.datasource.url=" + datasourceUrl);
+            properties.add("spring.jpa.hibernate.ddl-auto=update");
+        } else {
+            properties.add("spring.datasource.url=jdbc:h2:mem:leave-api-load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LeaveManagementApplication.class)
+                .profiles("test")
+                .properties(properties.toArray(String[]::new))
+                .run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            String runId = Long.toString(System.currentTimeMillis(), 36);
+            WorkingDayCalendar calendar = context.getBean(WorkingDayCalendar.class);
+            Employee[] employees = new Employee[users];
+            for (int i = 0; i < users; i++) {
+                employees[i] = new Employee(signUpAndLogin(http, baseUrl, "load-" + runId + "-" + i + "@company.com"), calendar);
+            }
+
+            Workload workload = new Workload(http, baseUrl, employees, clients, applyPercent, rate);
+            workload.drive(warmupSeconds);
+            Stats stats = workload.drive(seconds);
+
+            ObjectNode summary = stats.summary(clients, seconds, applyPercent, rate);
+            writeReports(reportDir, stats, summary);
+            printSummary(summary, baseline == null ? null : objectMapper.readTree(new File(baseline)));
+            System.out.println("Reports written to " + reportDir.getAbsolutePath());
+        }
+    }
+
+    /**
+     * The mixed workload. Each call to drive() records into fresh histograms, so the warm-up
+     * run (JIT, connection pools, caches) does not end up in the measured numbers.
+     */
+    private record Workload(HttpClient http, String baseUrl, Employee[] employees, int clients, int applyPercent,
+                            int rate) {
+
+        Stats drive(int seconds) throws Exception {
+            Stats stats = new Stats();
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+            // Per-client pacing in rate mode; clients are staggered so they do not fire in bursts
+            long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(clients) / rate : 0;
+
+            try (ExecutorService driver = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clients; c++) {
+                    Employee employee = employees[c % employees.length];
+                    long firstDue = start + (intervalNanos * c) / clients;
+                    driver.submit(() -> {
+                        long due = firstDue;
+                        while (true) {
+                            if (intervalNanos > 0) {
+                                long wait = due - System.nanoTime();
+                                if (wait > 0) {
+                                    LockSupport.parkNanos(wait);
+                                }
+                            } else {
+                                due = System.nanoTime();
+                            }
+                            if (due >= deadline) {
+                                return null;
+                            }
+                            boolean apply = ThreadLocalRandom.current().nextInt(100) < applyPercent;
+                            int status = apply ? send(applyRequest(employee)) : send(myRequestsRequest(employee));
+                            stats.record(apply ? "apply" : "my-requests", status, System.nanoTime() - due);
+                            due += intervalNanos;
+                        }
+                    });
+                }
+            }
+            return stats;
+        }
+
+        private int send(HttpRequest request) {
+            try {
+                return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                // Timeouts and refused connections show up as status 0
+                return 0;
+            }
+        }
+
+        // One-day UNPAID leave on a fresh weekday per request, so applies neither overlap nor run out of balance
+        private HttpRequest applyRequest(Employee employee) {
+            LocalDate day = employee.nextFreeDay();
+            String json = "{\"startDate\":\"" + day + "\",\"endDate\":\"" + day
+                    + "\",\"reason\":\"Load test\",\"leaveType\":\"UNPAID\"}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/leave/apply"))
+                    .header("Cookie", "jwt=" + employee.token)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private HttpRequest myRequestsRequest(Employee employee) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/leave/my-requests"))
+                    .header("Cookie", "jwt=" + employee.token)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+        }
+    }
+
+    private static final class Employee {
+
+        private static final LocalDate FIRST_MONDAY = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+        private final String token;
+        private final WorkingDayCalendar calendar;
+        private final AtomicInteger nextDayOffset = new AtomicInteger();
+
+        Employee(String token, WorkingDayCalendar calendar) {
+            this.token = token;
+            this.calendar = calendar;
+        }
+
+        // Consecutive working days, so the dates stay within the calendar's cached years as long as
+        // possible. Weekends and public holidays are skipped with the server's own calendar: the
+        // application would refuse them with a 400, which would count as an error and skew the latencies
+        LocalDate nextFreeDay() {
+            LocalDate day;
+            do {
+                day = FIRST_MONDAY.plusDays(nextDayOffset.getAndIncrement());
+            } while (!calendar.isWorkingDay(day));
+            return day;
+        }
+    }
+
+    /**
+     * Latencies (microseconds) and status codes per endpoint.
+     */
+    private static final class Stats {
+
+        private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+        private final Map<String, Map<Integer, LongAdder>> statuses = new ConcurrentHashMap<>();
+
+        void record(String endpoint, int status, long nanos) {
+            statuses.computeIfAbsent(endpoint, e -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(status, s -> new LongAdder())
+                    .increment();
+            // Only successful calls go into the latency histogram; failures are counted by status
+            if (status >= 200 && status < 300) {
+                latencies.computeIfAbsent(endpoint, e -> new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3))
+                        .recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+            }
+        }
+
+        ObjectNode summary(int clients, int seconds, int applyPercent, int rate) {
+            ObjectNode summary = objectMapper.createObjectNode();
+            summary.put("clients", clients);
+            summary.put("seconds", seconds);
+            summary.put("applyPercent", applyPercent);
+            summary.put("rate", rate);
+            ObjectNode endpoints = summary.putObject("endpoints");
+
+            for (String endpoint : new TreeMap<>(statuses).keySet()) {
+                ObjectNode node = endpoints.putObject(endpoint);
+                Map<String, Long> byStatus = new TreeMap<>();
+                statuses.get(endpoint).forEach((status, count) -> byStatus.put(String.valueOf(status), count.sum()));
+                long total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+                long ok = byStatus.entrySet().stream().filter(e -> e.getKey().startsWith("2")).mapToLong(Map.Entry::getValue).sum();
+
+                node.put("requests", total);
+                node.put("errors", total - ok);
+                node.put("throughput", ok / (double) seconds);
+                node.set("status", objectMapper.valueToTree(byStatus));
+
+                Histogram histogram = latencies.get(endpoint);
+                Map<String, Double> millis = new LinkedHashMap<>();
+                for (double percentile : PERCENTILES) {
+                    millis.put("p" + trim(percentile), histogram == null ? null : histogram.getValueAtPercentile(percentile) / 1000.0);
+                }
+                millis.put("max", histogram == null ? null : histogram.getMaxValue() / 1000.0);
+                node.set("latencyMillis", objectMapper.valueToTree(millis));
+            }
+            return summary;
+        }
+    }
+
+    private static void writeReports(File reportDir, Stats stats, ObjectNode summary) throws Exception {
+        if (!reportDir.isDirectory() && !reportDir.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + reportDir);
+        }
+        objectMapper.writeValue(new File(reportDir, "summary.json"), summary);
+        for (Map.Entry<String, Histogram> entry : stats.latencies.entrySet()) {
+            try (PrintStream out = new PrintStream(new File(reportDir, entry.getKey() + ".hgrm"))) {
+                // Scaled to milliseconds, the unit the summary uses
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static void printSummary(JsonNode summary, JsonNode baseline) {
+        System.out.printf("%n%-12s %9s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        summary.get("endpoints").fields().forEachRemaining(entry -> {
+            JsonNode node = entry.getValue();
+            JsonNode latency = node.get("latencyMillis");
+            System.out.printf("%-12s %9.0f %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n", entry.getKey(),
+                    node.get("throughput").asDouble(), node.get("errors").asLong(),
+                    latency.get("p50").asDouble(Double.NaN), latency.get("p90").asDouble(Double.NaN),
+                    latency.get("p99").asDouble(Double.NaN), latency.get("p99.9").asDouble(Double.NaN),
+                    latency.get("max").asDouble(Double.NaN));
+
+            JsonNode before = baseline == null ? null : baseline.path("endpoints").get(entry.getKey());
+            if (before != null) {
+                System.out.printf("%-12s %+8.1f%% %8s %+9.1f%% %+9.1f%% %+9.1f%% %+9.1f%% %+9.1f%%%n", "  vs base",
+                        change(before.get("throughput"), node.get("throughput")), "",
+                        change(before.at("/latencyMillis/p50"), latency.get("p50")),
+                        change(before.at("/latencyMillis/p90"), latency.get("p90")),
+                        change(before.at("/latencyMillis/p99"), latency.get("p99")),
+                        change(before.at("/latencyMillis/p99.9"), latency.get("p99.9")),
+                        change(before.at("/latencyMillis/max"), latency.get("max")));
+            }
+        });
+    }
+
+    private static double change(JsonNode before, JsonNode after) {
+        double base = before.asDouble(Double.NaN);
+        return (after.asDouble(Double.NaN) - base) / base * 100;
+    }
+
+    // 99.9 -> "99.9", 50.0 -> "50"
+    private static String trim(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static String signUpAndLogin(HttpClient http, String baseUrl, String email) throws Exception {
+        String credentials = "{\"email\":\"" + email + "\",\"password\":\"password123\"}";
+        post(http, baseUrl + "/api/auth/signup",
+                "{\"name\":\"Load Test\",\"email\":\"" + email + "\",\"password\":\"password123\",\"role\":\"EMPLOYEE\"}");
+        String login = post(http, baseUrl + "/api/auth/login", credentials);
+        return objectMapper.readTree(login).get("token").asText();
+    }
+
+    private static String post(HttpClient http, String url, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        String value = stringArg(args, name, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static String stringArg(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+}
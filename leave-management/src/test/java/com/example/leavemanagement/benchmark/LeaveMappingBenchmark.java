@@ -0,0 +1,104 @@
+package com.example.leavemanagement.benchmark;
+
+import com.example.leavemanagement.dto.leave.LeaveResponseDto;
+import com.example.leavemanagement.model.LeaveRequest;
+import com.example.leavemanagement.model.LeaveStatus;
+import com.example.leavemanagement.model.LeaveType;
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.service.LeaveService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The response side of the leave list endpoints: LeaveService.convertToDto over a list of
+ * entities, and Jackson writing the resulting List<LeaveResponseDto> the way Spring MVC does.
+ *
+ * Run with: mvn -Pbenchmark verify -Djmh.args="LeaveMapping"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaveMappingBenchmark {
+
+    // convertToDto is private; a constant MethodHandle is called as fast as a direct call
+    private static final MethodHandle CONVERT_TO_DTO;
+
+    static {
+        try {
+            CONVERT_TO_DTO = MethodHandles.privateLookupIn(LeaveService.class, MethodHandles.lookup())
+                    .findVirtual(LeaveService.class, "convertToDto",
+                            MethodType.methodType(LeaveResponseDto.class, LeaveRequest.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // A personal history, a team page, an HR export page
+    @Param({"10", "200", "5000"})
+    private int size;
+
+    private final LeaveService leaveService = new LeaveService();
+    // Same defaults Spring Boot applies to the MVC ObjectMapper (ISO dates, java.time support)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private List<LeaveRequest> entities;
+    private List<LeaveResponseDto> dtos;
+
+    @Setup
+    public void setUp() throws Throwable {
+        User user = new User(1L, "John Doe", "john.doe@company.com", "hash", Role.EMPLOYEE, null);
+        LeaveType[] types = LeaveType.values();
+        LeaveStatus[] statuses = LeaveStatus.values();
+
+        entities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDate start = LocalDate.of(2025, 1, 1).plusDays(i % 365);
+            LeaveRequest request = new LeaveRequest(user, start, start.plusDays(i % 5), "Family vacation #" + i, types[i % types.length]);
+            request.setId((long) i);
+            request.setStatus(statuses[i % statuses.length]);
+            request.setAppliedAt(LocalDateTime.of(2024, 12, 1, 9, 0).plusMinutes(i));
+            entities.add(request);
+        }
+        dtos = convertToDtos();
+    }
+
+    @Benchmark
+    public List<LeaveResponseDto> convertToDtos() throws Throwable {
+        List<LeaveResponseDto> result = new ArrayList<>(entities.size());
+        for (LeaveRequest entity : entities) {
+            result.add((LeaveResponseDto) CONVERT_TO_DTO.invokeExact(leaveService, entity));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
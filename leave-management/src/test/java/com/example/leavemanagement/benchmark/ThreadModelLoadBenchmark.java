@@ -0,0 +1,180 @@
+package com.example.leavemanagement.benchmark;
+
+import com.example.leavemanagement.LeaveManagementApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency of the leave API with requests on the platform Tomcat pool vs. on
+ * virtual threads, under many concurrent clients. Not a JMH benchmark: it boots the application
+ * once per mode (test profile, H2 unless --datasource-url is given) and drives it over HTTP.
+ *
+ * Each client loops GET /api/leave/my-requests (a JDBC round trip per request) with its own
+ * user's token. Without --datasource-url the database is in-memory H2, where JDBC hardly blocks;
+ * point it at Postgres to see what the thread model does when requests actually wait on I/O.
+ *
+ * Run with: mvn -Pbenchmark verify -Dbenchmark.main=com.example.leavemanagement.benchmark.ThreadModelLoadBenchmark
+ *           -Djmh.args="--clients 1000 --seconds 30"
+ */
+public class ThreadModelLoadBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        int clients = intArg(args, "--clients", 1000);
+        int seconds = intArg(args, "--seconds", 30);
+        int users = intArg(args, "--users", 100);
+        String datasourceUrl = stringArg(args, "--datasource-url", null);
+
+        List<String> results = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            results.add(run(virtualThreads, clients, seconds, users, datasourceUrl));
+        }
+
+        System.out.printf("%n%-10s %8s %12s %10s %10s %10s %8s%n", "mode", "clients", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        results.forEach(System.out::println);
+    }
+
+    private static String run(boolean virtualThreads, int clients, int seconds, int users, String datasourceUrl) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "management.server.port=0",
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "leave.revocation.refresh-cron=-",
+                "logging.level.root=WARN"));
+        if (datasourceUrl != null) {
+            properties.add("spring.datasource.url=" + datasourceUrl);
+            properties.add("spring.jpa.hibernate.ddl-auto=update");
+        } else {
+            properties.add("spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LeaveManagementApplication.class)
+                .profiles("test")
+                .properties(properties.toArray(String[]::new))
+                .run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            String[] tokens = new String[users];
+            for (int i = 0; i < users; i++) {
+                tokens[i] = signUpAndLogin(http, baseUrl, "load-" + mode + "-" + i + "@company.com");
+            }
+
+            // Warm up the JIT and the connection pools, then measure
+            drive(http, baseUrl, tokens, clients, Math.min(10, seconds));
+            Result result = drive(http, baseUrl, tokens, clients, seconds);
+
+            return String.format("%-10s %8d %12.0f %10.2f %10.2f %10.2f %8d", mode, clients,
+                    result.latenciesNanos.length / (double) seconds,
+                    percentile(result.latenciesNanos, 0.50), percentile(result.latenciesNanos, 0.99),
+                    percentile(result.latenciesNanos, 1.0), result.errors);
+        }
+    }
+
+    private static Result drive(HttpClient http, String baseUrl, String[] tokens, int clients, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        // One virtual thread per simulated client, so the driver itself is never the bottleneck
+        try (ExecutorService driver = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/leave/my-requests"))
+                        .header("Cookie", "jwt=" + tokens[c % tokens.length])
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build();
+                futures.add(driver.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+
+        List<long[]> perClient = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            perClient.add(future.get());
+        }
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private static String signUpAndLogin(HttpClient http, String baseUrl, String email) throws Exception {
+        String credentials = "{\"email\":\"" + email + "\",\"password\":\"password123\"}";
+        post(http, baseUrl + "/api/auth/signup",
+                "{\"name\":\"Load Test\",\"email\":\"" + email + "\",\"password\":\"password123\",\"role\":\"EMPLOYEE\"}");
+        String login = post(http, baseUrl + "/api/auth/login", credentials);
+        return objectMapper.readTree(login).get("token").asText();
+    }
+
+    private static String post(HttpClient http, String url, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    // Nearest-rank percentile of sorted latencies, in milliseconds
+    private static double percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        String value = stringArg(args, name, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static String stringArg(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    private record Result(long[] latenciesNanos, long errors) {
+    }
+}
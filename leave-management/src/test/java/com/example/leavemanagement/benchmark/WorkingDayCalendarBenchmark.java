@@ -0,0 +1,82 @@
+package com.example.leavemanagement.benchmark;
+
+import com.example.leavemanagement.service.WorkingDayCalendar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Precomputed WorkingDayCalendar vs. the obvious loop over every day of the leave.
+ *
+ * Run with: mvn -Pbenchmark verify -Djmh.args="WorkingDayCalendar -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkingDayCalendarBenchmark {
+
+    // Typical leave lengths: a long weekend, two weeks, a sabbatical crossing a year boundary
+    @Param({"3", "14", "400"})
+    private int days;
+
+    private WorkingDayCalendar calendar;
+    private Set<LocalDate> holidays;
+    private LocalDate start;
+    private LocalDate end;
+
+    @Setup
+    public void setUp() {
+        calendar = new WorkingDayCalendar();
+        ReflectionTestUtils.setField(calendar, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(calendar, "weekendDays", EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+        ReflectionTestUtils.setField(calendar, "holidayFiles", new String[]{"classpath:holidays/holidays.csv"});
+        ReflectionTestUtils.invokeMethod(calendar, "init");
+
+        // Same holidays for the naive version
+        holidays = new HashSet<>();
+        for (LocalDate day = LocalDate.of(2025, 1, 1); day.getYear() < 2027; day = day.plusDays(1)) {
+            if (!calendar.isWorkingDay(day) && day.getDayOfWeek().getValue() < 6) {
+                holidays.add(day);
+            }
+        }
+
+        start = LocalDate.of(2025, 12, 1);
+        end = start.plusDays(days - 1);
+    }
+
+    @Benchmark
+    public int precomputed() {
+        return calendar.countWorkingDays(start, end);
+    }
+
+    @Benchmark
+    public int naiveLoop() {
+        int count = 0;
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            DayOfWeek dayOfWeek = day.getDayOfWeek();
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && !holidays.contains(day)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
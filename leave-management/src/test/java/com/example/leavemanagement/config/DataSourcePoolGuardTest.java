@@ -0,0 +1,62 @@
+package com.example.leavemanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourcePoolGuardTest {
+
+    // The pool is never started, so no database is needed
+    private DataSourcePoolGuard guard(boolean virtualThreads, int poolSize, long connectionTimeoutMs) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setConnectionTimeout(connectionTimeoutMs);
+
+        DataSourcePoolGuard guard = new DataSourcePoolGuard();
+        ReflectionTestUtils.setField(guard, "dataSources", List.of(dataSource));
+        ReflectionTestUtils.setField(guard, "virtualThreads", virtualThreads);
+        ReflectionTestUtils.setField(guard, "maxPoolSize", 50);
+        ReflectionTestUtils.setField(guard, "maxConnectionTimeout", Duration.ofSeconds(5));
+        return guard;
+    }
+
+    @Test
+    @DisplayName("Should accept a bounded pool with a short connection timeout")
+    void shouldAcceptSanePool() {
+        assertDoesNotThrow(() -> guard(true, 20, 3000).check());
+    }
+
+    @Test
+    @DisplayName("Should refuse to start with an oversized pool or a long timeout on virtual threads")
+    void shouldRejectUnsafePool() {
+        IllegalStateException tooBig = assertThrows(IllegalStateException.class, () -> guard(true, 500, 3000).check());
+        assertTrue(tooBig.getMessage().contains("maximum-pool-size=500"));
+
+        IllegalStateException tooSlow = assertThrows(IllegalStateException.class, () -> guard(true, 20, 30000).check());
+        assertTrue(tooSlow.getMessage().contains("connection-timeout=30000"));
+    }
+
+    @Test
+    @DisplayName("Should see through the statement-counting proxy to the pool")
+    void shouldCheckProxiedPool() {
+        DataSourcePoolGuard guard = guard(true, 500, 3000);
+        HikariDataSource pool = new HikariDataSource();
+        pool.setMaximumPoolSize(500);
+        ReflectionTestUtils.setField(guard, "dataSources", List.of(ProxyDataSourceBuilder.create(pool).build()));
+
+        assertThrows(IllegalStateException.class, guard::check);
+    }
+
+    @Test
+    @DisplayName("Should not enforce anything on the platform thread pool")
+    void shouldSkipWithoutVirtualThreads() {
+        assertDoesNotThrow(() -> guard(false, 500, 30000).check());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.leavemanagement.config;
+
+import com.example.leavemanagement.service.LeaveService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Real ports: the actuator lives on its own management port, which MockMvc cannot reach
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("Should expose service timers, filter timings and Hibernate statistics for Prometheus")
+    void shouldExposePrometheusMetrics() throws Exception {
+        // Arrange - one service call (timed by the aspect) and one request through the JWT filter
+        assertThrows(UsernameNotFoundException.class, () -> leaveService.getLeaveBalance("nobody@company.com"));
+        mockMvc.perform(get("/api/leave/my-requests"));
+
+        // Act
+        HttpResponse<String> scrape = scrape(managementPort);
+        HttpResponse<String> apiPort = scrape(serverPort);
+
+        // Assert - no user session needed on the management port, and nothing on the API port
+        assertEquals(200, scrape.statusCode());
+        assertTrue(scrape.body().contains("leave_service_seconds_count{"));
+        assertTrue(scrape.body().contains("method=\"getLeaveBalance\""));
+        assertTrue(scrape.body().contains("auth_filter_seconds_count{"));
+        assertTrue(scrape.body().contains("hibernate_statements_total"));
+        assertTrue(scrape.body().contains("hikaricp_connections_active"));
+        assertNotEquals(200, apiPort.statusCode());
+    }
+
+    private HttpResponse<String> scrape(int port) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
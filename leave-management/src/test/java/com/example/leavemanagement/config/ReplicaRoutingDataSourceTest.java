@@ -0,0 +1,128 @@
+package com.example.leavemanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two H2 databases stand in for primary and replica; each knows its own name
+class ReplicaRoutingDataSourceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private ReplicaLagTracker tracker;
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(20))");
+        jdbc.execute("DELETE FROM whoami");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+
+    private void setUp(String lagQuery) {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        tracker = new ReplicaLagTracker(replica, lagQuery, Duration.ofSeconds(5), Duration.ofSeconds(5), meterRegistry);
+
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, tracker, meterRegistry));
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @BeforeEach
+    void signIn() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("john.doe@company.com", null, List.of()));
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private String whoami(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to the replica and writes to the primary")
+    void shouldRouteByReadOnlyFlag() {
+        // Arrange - lag probe reports an up-to-date replica; another user wrote recently
+        setUp("SELECT 0");
+        tracker.checkLag();
+        tracker.recordWrite("someone.else@company.com");
+
+        // Act & Assert
+        assertEquals("replica", whoami(readOnly));
+        assertEquals("primary", whoami(readWrite));
+        assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    @Test
+    @DisplayName("Should read from the primary right after the same user's write")
+    void shouldReadYourWrites() {
+        setUp("SELECT 0");
+        tracker.checkLag();
+
+        // A write by this user, e.g. applyLeave
+        readWrite.executeWithoutResult(status -> jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class));
+
+        assertEquals("primary", whoami(readOnly));
+        assertEquals(1.0, meterRegistry.get("leave.datasource.routed").tag("target", "primary_fallback").counter().count());
+
+        // Other users still use the replica
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("jane.doe@company.com", null, List.of()));
+        assertEquals("replica", whoami(readOnly));
+    }
+
+    @Test
+    @DisplayName("Should read from the primary for everyone right after a bulk write")
+    void shouldReadBulkWrites() {
+        setUp("SELECT 0");
+        tracker.checkLag();
+
+        // e.g. the monthly accrual
+        tracker.recordBulkWrite();
+
+        assertEquals("primary", whoami(readOnly));
+        SecurityContextHolder.clearContext();
+        assertEquals("primary", whoami(readOnly));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica lags or its lag is unknown")
+    void shouldFallBackOnLag() {
+        setUp("SELECT 60000");
+
+        // Not probed yet: lag unknown
+        assertEquals("primary", whoami(readOnly));
+
+        tracker.checkLag();
+        assertEquals(60000, tracker.getLagMillis());
+        assertEquals("primary", whoami(readOnly));
+    }
+}
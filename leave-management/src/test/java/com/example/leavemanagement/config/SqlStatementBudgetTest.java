@@ -0,0 +1,119 @@
+package com.example.leavemanagement.config;
+
+import com.example.leavemanagement.model.LeaveRequest;
+import com.example.leavemanagement.model.LeaveType;
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.repository.LeaveRequestRepository;
+import com.example.leavemanagement.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Query budgets for the list endpoints, counted through the real DataSource proxy.
+// Several users with several leaves each, so a per-row lazy load (N+1) would blow the budget.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlStatementBudgetTest {
+
+    private static final int USERS = 3;
+    private static final int LEAVES_PER_USER = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<LeaveRequest> leaves = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LocalDate start = LocalDate.now().plusMonths(1);
+        for (int u = 0; u < USERS; u++) {
+            User user = userRepository.save(new User(null, "Budget " + u, "budget-" + u + "@company.com", "hash", Role.EMPLOYEE, null));
+            users.add(user);
+            for (int l = 0; l < LEAVES_PER_USER; l++) {
+                LocalDate day = start.plusWeeks(l);
+                leaves.add(leaveRequestRepository.save(new LeaveRequest(user, day, day, "Budget", LeaveType.UNPAID)));
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        leaveRequestRepository.deleteAll(leaves);
+        userRepository.deleteAll(users);
+    }
+
+    private static RequestSqlStatistics sqlOf(MvcResult result) {
+        return (RequestSqlStatistics) result.getRequest().getAttribute(RequestSqlStatistics.REQUEST_ATTRIBUTE);
+    }
+
+    @Test
+    @WithMockUser(username = "hr@company.com", roles = "ADMIN")
+    @DisplayName("GET /api/leave/all should load a page in a single statement")
+    void allLeaveRequestsShouldBeOneStatement() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/leave/all").param("size", "50"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        assertEquals(1, sqlOf(result).getStatementCount());
+    }
+
+    @Test
+    @WithMockUser(username = "budget-0@company.com", roles = "EMPLOYEE")
+    @DisplayName("GET /api/leave/my-requests should be a single statement however many leaves the user has")
+    void myRequestsShouldBeOneStatement() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/leave/my-requests"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        assertEquals(1, sqlOf(result).getStatementCount());
+    }
+
+    @Test
+    @WithMockUser(username = "budget-0@company.com", roles = "EMPLOYEE")
+    @DisplayName("A poll with the current ETag should not reach the database at all")
+    void notModifiedPollShouldRunNoStatements() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/leave/my-requests"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/leave/my-requests").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andReturn();
+
+        // Assert
+        assertEquals(0, sqlOf(result).getStatementCount());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.leavemanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementListenerTest {
+
+    private static final String LOAD_USER = "select u.id, u.name from users u where u.id=?";
+
+    private SqlStatementListener listener;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new SqlStatementListener();
+        ReflectionTestUtils.setField(listener, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(listener, "slowQueryThreshold", Duration.ofMillis(100));
+        ReflectionTestUtils.invokeMethod(listener, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestSqlStatistics.end();
+    }
+
+    private static QueryInfo query(String sql, Object... values) throws Exception {
+        QueryInfo query = new QueryInfo(sql);
+        List<ParameterSetOperation> parameters = new java.util.ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            parameters.add(values[i] == null
+                    ? new ParameterSetOperation(PreparedStatement.class.getMethod("setNull", int.class, int.class), new Object[]{i + 1, Types.VARCHAR})
+                    : new ParameterSetOperation(PreparedStatement.class.getMethod("setObject", int.class, Object.class), new Object[]{i + 1, values[i]}));
+        }
+        query.setParametersList(List.of(parameters));
+        return query;
+    }
+
+    private void execute(QueryInfo query, long elapsedMillis) {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setElapsedTime(elapsedMillis);
+        listener.afterQuery(execution, List.of(query));
+    }
+
+    @Test
+    @DisplayName("Should count statements and DB time for the current request and spot repeated selects")
+    void shouldAttributeStatementsToRequest() throws Exception {
+        // Arrange
+        RequestSqlStatistics statistics = RequestSqlStatistics.start();
+
+        // Act - one list query, then one lazy user load per row
+        execute(query("select lr.id from leave_requests lr"), 3);
+        for (long id = 1; id <= 6; id++) {
+            execute(query(LOAD_USER, id), 1);
+        }
+
+        // Assert
+        assertEquals(7, statistics.getStatementCount());
+        assertEquals(9, statistics.getDbTimeMillis());
+        assertEquals(Map.of(LOAD_USER, 6), statistics.repeatedSelects(5));
+        assertTrue(statistics.repeatedSelects(7).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should ignore statements outside a request")
+    void shouldIgnoreStatementsOutsideRequest() throws Exception {
+        // Act & Assert - e.g. a scheduler; nothing to attribute to
+        assertDoesNotThrow(() -> execute(query(LOAD_USER, 1L), 1));
+        assertNull(RequestSqlStatistics.current());
+    }
+
+    @Test
+    @DisplayName("Should count slow statements and describe their parameters without the values")
+    void shouldReportSlowStatements() throws Exception {
+        // Arrange
+        QueryInfo slow = query("update users set name=?, email=? where id=?", "Jane Doe", null, 42L);
+
+        // Act
+        execute(slow, 150);
+        execute(query(LOAD_USER, 1L), 20);
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("leave.sql.slow").counter().count());
+        assertEquals("[String(8), null, Long]", SqlStatementListener.parameterShape(slow));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.leavemanagement.controller;
+
+import com.example.leavemanagement.dto.leave.LeaveRolloverResultDto;
+import com.example.leavemanagement.dto.request.RoleUpdateRequest;
+import com.example.leavemanagement.dto.response.ApiResponse;
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.security.JwtUtils;
+import com.example.leavemanagement.security.TokenRevocationList;
+import com.example.leavemanagement.security.UserDetailsServiceImpl;
+import com.example.leavemanagement.service.AuthService;
+import com.example.leavemanagement.service.YearEndRolloverService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AdminController.class)
+@EnableMethodSecurity
+// The JWT filter records auth.filter timings
+@Import(SimpleMeterRegistry.class)
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private YearEndRolloverService yearEndRolloverService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @MockitoBean
+    private JwtUtils jwtUtils;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @MockitoBean
+    private TokenRevocationList tokenRevocationList;
+
+    @Test
+    @DisplayName("Should run the rollover as a dry run unless told otherwise")
+    @WithMockUser(username = "admin@company.com", roles = "ADMIN")
+    void shouldDefaultToDryRun() throws Exception {
+        // Arrange
+        when(yearEndRolloverService.rollover(2025, true))
+                .thenReturn(new LeaveRolloverResultDto(2025, true, 42, "/tmp/rollover-2025-dry-run.csv"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/rollover").param("year", "2025").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dryRun").value(true))
+                .andExpect(jsonPath("$.usersAffected").value(42));
+    }
+
+    @Test
+    @DisplayName("Should answer 400 for a fiscal year that has not ended")
+    @WithMockUser(username = "admin@company.com", roles = "ADMIN")
+    void shouldRejectFutureFiscalYear() throws Exception {
+        // Arrange
+        when(yearEndRolloverService.rollover(2099, false))
+                .thenThrow(new IllegalArgumentException("Fiscal year 2099 has not ended yet"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/rollover").param("year", "2099").param("dryRun", "false").with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @DisplayName("Should forbid the rollover for non-admin users")
+    @WithMockUser(username = "employee@company.com", roles = "EMPLOYEE")
+    void shouldForbidEmployees() throws Exception {
+        mockMvc.perform(post("/api/admin/rollover").param("year", "2025").param("dryRun", "false").with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verify(yearEndRolloverService, never()).rollover(anyInt(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should let an admin change a user's role")
+    @WithMockUser(username = "admin@company.com", roles = "ADMIN")
+    void shouldUpdateRole() throws Exception {
+        // Arrange
+        when(authService.updateRole(any(RoleUpdateRequest.class)))
+                .thenReturn(new ApiResponse(true, "Role updated successfully"));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/admin/users/role")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"john.doe@company.com\",\"role\":\"ADMIN\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    @Test
+    @DisplayName("Should sign a user out of every session")
+    @WithMockUser(username = "admin@company.com", roles = "ADMIN")
+    void shouldSignOutEverywhere() throws Exception {
+        // Arrange
+        when(authService.signOutEverywhere("john.doe@company.com"))
+                .thenReturn(new ApiResponse(true, "User signed out of all sessions"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/users/sign-out")
+                        .with(csrf())
+                        .param("email", "john.doe@company.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+}
@@ -6,14 +6,19 @@ import com.example.leavemanagement.dto.response.ApiResponse;
 import com.example.leavemanagement.dto.response.JwtResponse;
 import com.example.leavemanagement.model.Role;
 import com.example.leavemanagement.security.JwtUtils;
+import com.example.leavemanagement.security.TokenRevocationList;
 import com.example.leavemanagement.security.UserDetailsServiceImpl;
 import com.example.leavemanagement.service.AuthService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.MalformedJwtException;
+import jakarta.servlet.http.Cookie;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -26,6 +31,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(controllers = AuthController.class,
         excludeAutoConfiguration = {SecurityAutoConfiguration.class})
+// The JWT filter records auth.filter timings
+@Import(SimpleMeterRegistry.class)
 class AuthControllerTest {
 
     @Autowired
@@ -40,6 +47,9 @@ class AuthControllerTest {
     @MockitoBean
     private UserDetailsServiceImpl userDetailsService;
 
+    @MockitoBean
+    private TokenRevocationList tokenRevocationList;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -174,4 +184,21 @@ class AuthControllerTest {
                         .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    @DisplayName("Should revoke the cookie token and clear the cookie on logout")
+    void shouldLogout() throws Exception {
+        // Arrange - the JWT filter sees the cookie too; the mock token cannot be verified
+        when(jwtUtils.parseAndVerify(any())).thenThrow(new MalformedJwtException("mock token"));
+        when(authService.logout("eyJhbGciOiJIUzI1NiJ9.mock-token"))
+                .thenReturn(new ApiResponse(true, "Logged out successfully"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/logout")
+                        .with(csrf())
+                        .cookie(new Cookie("jwt", "eyJhbGciOiJIUzI1NiJ9.mock-token")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(cookie().maxAge("jwt", 0));
+    }
 }
@@ -1,31 +1,53 @@
 package com.example.leavemanagement.controller;
 
+import com.example.leavemanagement.dto.leave.LeaveExportFormat;
 import com.example.leavemanagement.dto.leave.LeaveRequestDto;
+import com.example.leavemanagement.dto.leave.LeaveRequestFilterDto;
+import com.example.leavemanagement.dto.leave.LeaveRequestPageDto;
 import com.example.leavemanagement.dto.leave.LeaveResponseDto;
+import com.example.leavemanagement.dto.leave.RejectionRequestDto;
 import com.example.leavemanagement.dto.response.ApiResponse;
 import com.example.leavemanagement.model.LeaveStatus;
 import com.example.leavemanagement.model.LeaveType;
 import com.example.leavemanagement.security.JwtUtils;
+import com.example.leavemanagement.security.TokenRevocationList;
 import com.example.leavemanagement.security.UserDetailsServiceImpl;
+import com.example.leavemanagement.service.LeaveEventHub;
+import com.example.leavemanagement.service.LeaveExportService;
 import com.example.leavemanagement.service.LeaveService;
+import com.example.leavemanagement.service.UserChangeVersions;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -33,6 +55,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(LeaveController.class)
 @EnableMethodSecurity
+// The JWT filter records auth.filter timings
+@Import(SimpleMeterRegistry.class)
 class LeaveControllerTest {
 
     @Autowired
@@ -40,6 +64,15 @@ class LeaveControllerTest {
 
     @MockitoBean
     private LeaveService leaveService;
+
+    @MockitoBean
+    private LeaveExportService leaveExportService;
+
+    @MockitoBean
+    private UserChangeVersions userChangeVersions;
+
+    @MockitoBean
+    private LeaveEventHub leaveEventHub;
     
     @MockitoBean
     private JwtUtils jwtUtils;
@@ -47,6 +80,9 @@ class LeaveControllerTest {
     @MockitoBean
     private UserDetailsServiceImpl userDetailsService;
 
+    @MockitoBean
+    private TokenRevocationList tokenRevocationList;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -112,11 +148,13 @@ class LeaveControllerTest {
         );
         
         when(leaveService.getMyLeaveRequests(anyString())).thenReturn(mockEmployeeRequests);
+        when(userChangeVersions.etag("employee@company.com")).thenReturn("\"e1-7\"");
 
         // Act & Assert
         mockMvc.perform(get("/api/leave/my-requests")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"e1-7\""))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].userEmail").value("employee@company.com"))
@@ -135,17 +173,79 @@ class LeaveControllerTest {
                 createMockLeaveResponse(3L, LeaveStatus.REJECTED, "user3@company.com")
         );
         
-        when(leaveService.getAllLeaveRequests()).thenReturn(mockAllRequests);
+        when(leaveService.getAllLeaveRequests(any(LeaveRequestFilterDto.class), isNull(), isNull()))
+                .thenReturn(new LeaveRequestPageDto(mockAllRequests, "next-page-token"));
 
         // Act & Assert
         mockMvc.perform(get("/api/leave/all")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.length()").value(3))
-                .andExpect(jsonPath("$[0].status").value("PENDING"))
-                .andExpect(jsonPath("$[1].status").value("APPROVED"))
-                .andExpect(jsonPath("$[2].status").value("REJECTED"));
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].status").value("PENDING"))
+                .andExpect(jsonPath("$.items[1].status").value("APPROVED"))
+                .andExpect(jsonPath("$.items[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$.nextCursor").value("next-page-token"));
+    }
+
+    @Test
+    @DisplayName("Should pass admin listing filters, cursor and page size through to the service")
+    @WithMockUser(username = "admin@company.com", roles = "ADMIN")
+    void shouldBindAdminListingFiltersAndCursor() throws Exception {
+        // Arrange
+        // We capture the filter object Spring builds from the query parameters
+        ArgumentCaptor<LeaveRequestFilterDto> filterCaptor = ArgumentCaptor.forClass(LeaveRequestFilterDto.class);
+        when(leaveService.getAllLeaveRequests(filterCaptor.capture(), eq("abc"), eq(25)))
+                .thenReturn(new LeaveRequestPageDto(List.of(), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/leave/all")
+                .param("status", "PENDING")
+                .param("leaveType", "SICK")
+                .param("userEmail", "user1@company.com")
+                .param("from", "2025-01-01")
+                .param("to", "2025-01-31")
+                .param("cursor", "abc")
+                .param("size", "25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        LeaveRequestFilterDto filter = filterCaptor.getValue();
+        assertEquals(LeaveStatus.PENDING, filter.getStatus());
+        assertEquals(LeaveType.SICK, filter.getLeaveType());
+        assertEquals("user1@company.com", filter.getUserEmail());
+        assertEquals(LocalDate.of(2025, 1, 1), filter.getFrom());
+        assertEquals(LocalDate.of(2025, 1, 31), filter.getTo());
+    }
+
+    @Test
+    @DisplayName("Should stream the admin export as CSV through an async response")
+    @WithMockUser(username = "admin@company.com", roles = "ADMIN")
+    void shouldStreamCsvExportForAdmin() throws Exception {
+        // Arrange - the mocked export service writes one line to whatever stream it is given
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id,userName\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(leaveExportService).exportLeaveRequests(any(LeaveRequestFilterDto.class),
+                eq(LeaveExportFormat.CSV), any(OutputStream.class));
+
+        // Act & Assert
+        // The export is written on an async task, so we have to dispatch the async result
+        MvcResult result = mockMvc.perform(get("/api/leave/export")
+                .param("format", "csv")
+                .param("status", "APPROVED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The export's own timeout (leave.export.timeout), not the container default
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"leave-requests.csv\""))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,userName\n"));
     }
 
     @Test
@@ -176,6 +276,38 @@ class LeaveControllerTest {
                 .andExpect(jsonPath("$.message").value("Leave request approved successfully"));
     }
 
+    @Test
+    @DisplayName("Should reject a leave request with the admin's reason")
+    @WithMockUser(username = "admin@company.com", roles = "ADMIN")
+    void shouldRejectLeaveRequestWithReason() throws Exception {
+        // Arrange
+        when(leaveService.rejectLeaveRequest(2L, "Team offsite that week"))
+                .thenReturn(new ApiResponse(true, "Leave request rejected successfully"));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/leave/reject/2")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RejectionRequestDto("Team offsite that week"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    @Test
+    @DisplayName("Should answer 400 for a rejection reason over 1000 characters")
+    @WithMockUser(username = "admin@company.com", roles = "ADMIN")
+    void shouldRejectOverlongRejectionReason() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/leave/reject/2")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RejectionRequestDto("x".repeat(1001)))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.reason").value("Reason must be at most 1000 characters"));
+
+        verify(leaveService, never()).rejectLeaveRequest(any(), any());
+    }
+
     @Test
     @DisplayName("Should deny access to employee trying to access admin endpoints")
     @WithMockUser(username = "employee@company.com", roles = "EMPLOYEE")
@@ -215,6 +347,65 @@ class LeaveControllerTest {
                 .andExpect(jsonPath("$.message").value("Leave request cancelled successfully"));
     }
 
+    @Test
+    @DisplayName("Should answer 304 without loading anything when the client's ETag is current")
+    @WithMockUser(username = "employee@company.com", roles = "EMPLOYEE")
+    void shouldAnswerNotModifiedForCurrentEtag() throws Exception {
+        // Arrange
+        when(userChangeVersions.etag("employee@company.com")).thenReturn("\"e1-7\"");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/leave/my-requests").header("If-None-Match", "\"e1-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"e1-7\""))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/leave/balance").header("If-None-Match", "\"e1-7\""))
+                .andExpect(status().isNotModified());
+
+        verify(leaveService, never()).getMyLeaveRequests(anyString());
+        verify(leaveService, never()).getLeaveBalance(anyString());
+    }
+
+    @Test
+    @DisplayName("Should send the data again once the user's version has moved on")
+    @WithMockUser(username = "employee@company.com", roles = "EMPLOYEE")
+    void shouldAnswerFullResponseForStaleEtag() throws Exception {
+        // Arrange - the client still holds version 7
+        when(userChangeVersions.etag("employee@company.com")).thenReturn("\"e1-8\"");
+        when(leaveService.getMyLeaveRequests("employee@company.com"))
+                .thenReturn(List.of(createMockLeaveResponse(1L, LeaveStatus.APPROVED, "employee@company.com")));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/leave/my-requests").header("If-None-Match", "\"e1-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"e1-8\""))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"));
+    }
+
+    @Test
+    @DisplayName("Should open an event stream for the signed-in employee")
+    @WithMockUser(username = "employee@company.com", roles = "EMPLOYEE")
+    void shouldOpenEventStreamForCurrentUser() throws Exception {
+        // Arrange
+        when(leaveEventHub.subscribeUser("employee@company.com")).thenReturn(new SseEmitter());
+
+        // Act & Assert - the response stays open (async) for events to be pushed
+        mockMvc.perform(get("/api/leave/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+        verify(leaveEventHub).subscribeUser("employee@company.com");
+    }
+
+    @Test
+    @DisplayName("Should keep the stream of new applications to admins")
+    @WithMockUser(username = "employee@company.com", roles = "EMPLOYEE")
+    void shouldDenyApplicationStreamToEmployees() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/leave/events/all").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isForbidden());
+        verify(leaveEventHub, never()).subscribeAdmin();
+    }
+
     // Helper method to create mock LeaveResponseDto with complete data
     private LeaveResponseDto createMockLeaveResponse(Long id, LeaveStatus status, String userEmail) {
         LeaveResponseDto response = new LeaveResponseDto();
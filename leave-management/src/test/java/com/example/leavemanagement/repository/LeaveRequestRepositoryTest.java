@@ -0,0 +1,102 @@
+package com.example.leavemanagement.repository;
+
+import com.example.leavemanagement.dto.leave.LeaveResponseDto;
+import com.example.leavemanagement.model.LeaveRequest;
+import com.example.leavemanagement.model.LeaveStatus;
+import com.example.leavemanagement.model.LeaveType;
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Runs the real queries against H2 and counts what Hibernate sends to the database.
+// A list endpoint must cost exactly one statement no matter how many users appear in it (no N+1).
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class LeaveRequestRepositoryTest {
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    // Three users with two requests each, so a per-row user lookup would show up as extra statements
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 3; i++) {
+            User user = new User(null, "User " + i, "user" + i + "@company.com", "hash", Role.EMPLOYEE, null);
+            entityManager.persist(user);
+            entityManager.persist(new LeaveRequest(user, LocalDate.of(2025, 3, i), LocalDate.of(2025, 3, i + 1),
+                    "Reason", LeaveType.ANNUAL));
+            entityManager.persist(new LeaveRequest(user, LocalDate.of(2025, 4, i), LocalDate.of(2025, 4, i),
+                    "Reason", LeaveType.SICK));
+        }
+        // Start every query from an empty persistence context, like a fresh request would
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Admin listing page should be a single statement with no entity loads")
+    void adminPageShouldUseOneStatement() {
+        List<LeaveResponseDto> page = leaveRequestRepository.findPage(
+                null, null, null, null, null, null, null, Limit.of(51));
+
+        assertEquals(6, page.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("My-requests listing should be a single statement joined on the user's email")
+    void myRequestsShouldUseOneStatement() {
+        List<LeaveResponseDto> mine = leaveRequestRepository.findResponsesByUserEmail("user2@company.com");
+
+        assertEquals(2, mine.size());
+        assertEquals("User 2", mine.get(0).getUserName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Keyset cursor and filters should narrow the page in the same single statement")
+    void filteredPageAfterCursorShouldUseOneStatement() {
+        List<LeaveResponseDto> firstPage = leaveRequestRepository.findPage(
+                null, LeaveType.ANNUAL, null, null, null, null, null, Limit.of(2));
+        LeaveResponseDto last = firstPage.get(1);
+        statistics.clear();
+
+        List<LeaveResponseDto> secondPage = leaveRequestRepository.findPage(
+                LeaveStatus.PENDING, LeaveType.ANNUAL, null, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31),
+                last.getAppliedAt(), last.getId(), Limit.of(2));
+
+        // 3 annual requests in total, 2 were on the first page
+        assertEquals(1, secondPage.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.leavemanagement.repository;
+
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Checks the conditional balance UPDATEs against a real database
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        // New users start with 20 annual, 10 sick and 5 casual days
+        User user = new User(null, "John Doe", "john.doe@company.com", "hash", Role.EMPLOYEE, null);
+        userId = entityManager.persistAndFlush(user).getId();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should deduct when the balance covers the request and refuse when it does not")
+    void shouldDeductOnlyWhileBalanceSuffices() {
+        assertEquals(1, userRepository.deductCasualLeaveBalance(userId, 3));
+        // Only 2 casual days are left, so asking for 3 more must not touch the row
+        assertEquals(0, userRepository.deductCasualLeaveBalance(userId, 3));
+        assertEquals(1, userRepository.deductCasualLeaveBalance(userId, 2));
+
+        entityManager.clear();
+        assertEquals(0, userRepository.findById(userId).orElseThrow().getCasualLeaveBalance());
+    }
+
+    @Test
+    @DisplayName("Should restore days relative to the current balance")
+    void shouldRestoreRelativeToCurrentBalance() {
+        userRepository.deductAnnualLeaveBalance(userId, 5);
+        userRepository.restoreAnnualLeaveBalance(userId, 2);
+
+        entityManager.clear();
+        User user = userRepository.findById(userId).orElseThrow();
+        assertEquals(17, user.getAnnualLeaveBalance());
+        // Both UPDATEs bumped the optimistic-lock version
+        assertEquals(2, user.getVersion());
+    }
+}
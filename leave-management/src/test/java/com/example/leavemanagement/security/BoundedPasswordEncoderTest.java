@@ -0,0 +1,101 @@
+package com.example.leavemanagement.security;
+
+import com.example.leavemanagement.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    private BoundedPasswordEncoder encoder(int strength, int threads, int queueCapacity) {
+        BoundedPasswordEncoder bounded = new BoundedPasswordEncoder();
+        ReflectionTestUtils.setField(bounded, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(bounded, "strength", strength);
+        ReflectionTestUtils.setField(bounded, "threads", threads);
+        ReflectionTestUtils.setField(bounded, "queueCapacity", queueCapacity);
+        bounded.init();
+        return bounded;
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should hash and verify on the hashing pool and record timings")
+    void shouldHashOnPool() {
+        // Arrange
+        encoder = encoder(4, 2, 4);
+
+        // Act
+        String hash = encoder.encode("password123");
+
+        // Assert
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("op", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("auth.password.hash").tag("op", "matches").timer().count());
+        assertEquals(3, meterRegistry.get("auth.password.queue").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 semantics once the pool and queue are full")
+    void shouldRejectWhenSaturated() throws Exception {
+        // Arrange - one thread, one queue slot, and a hash that blocks until released
+        encoder = encoder(4, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = mock(PasswordEncoder.class);
+        when(blocking.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hash";
+        });
+        ReflectionTestUtils.setField(encoder, "delegate", blocking);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (((ThreadPoolExecutor) ReflectionTestUtils.getField(encoder, "executor")).getQueue().isEmpty()) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("c"));
+        assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should ask for a rehash only when the stored cost differs from the configured one")
+    void shouldUpgradeOnCostChange() {
+        encoder = encoder(5, 1, 1);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password123")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password123")));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+}
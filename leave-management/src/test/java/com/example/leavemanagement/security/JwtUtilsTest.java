@@ -0,0 +1,81 @@
+package com.example.leavemanagement.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private JwtUtils jwtUtils;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtUtils = jwtUtils(86_400_000L);
+    }
+
+    private JwtUtils jwtUtils(long expiration) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", "s3cUr3!JwT$eCrEtK3y@1234567890abcdef");
+        ReflectionTestUtils.setField(utils, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(utils, "verifiedCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(utils, "meterRegistry", meterRegistry);
+        utils.init();
+        return utils;
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and serve repeats from the cache")
+    void shouldVerifyOnceAndCache() {
+        // Arrange
+        String token = jwtUtils.generateToken("john.doe@company.com", "EMPLOYEE");
+        UserDetails user = new User("john.doe@company.com", "hash", Collections.emptyList());
+
+        // Act
+        Claims first = jwtUtils.parseAndVerify(token);
+        Claims second = jwtUtils.parseAndVerify(token);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("john.doe@company.com", first.getSubject());
+        assertEquals("EMPLOYEE", jwtUtils.extractRole(token));
+        assertTrue(jwtUtils.validateToken(first, user));
+        assertEquals(2.0, meterRegistry.get("cache.gets").tags("cache", "jwt.verified", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should reject a token whose signature does not match")
+    void shouldRejectTamperedToken() {
+        String token = jwtUtils.generateToken("john.doe@company.com", "EMPLOYEE");
+        jwtUtils.parseAndVerify(token);
+
+        // Flip a character in the signature; the digest changes too, so the cache cannot vouch for it
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+
+        assertThrows(SignatureException.class, () -> jwtUtils.parseAndVerify(tampered));
+    }
+
+    @Test
+    @DisplayName("Should reject an expired token and not cache it")
+    void shouldRejectExpiredToken() {
+        JwtUtils expiring = jwtUtils(-1_000L);
+        String token = expiring.generateToken("john.doe@company.com", "EMPLOYEE");
+
+        assertThrows(ExpiredJwtException.class, () -> expiring.parseAndVerify(token));
+        assertThrows(ExpiredJwtException.class, () -> expiring.parseAndVerify(token));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.leavemanagement.security;
+
+import com.example.leavemanagement.model.TokenRevocation;
+import com.example.leavemanagement.repository.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenRevocationList, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(tokenRevocationList, "expectedTokens", 100);
+    }
+
+    private static Claims claims(String email, Instant issuedAt) {
+        return Jwts.claims()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(email)
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(issuedAt.plus(1, ChronoUnit.DAYS)));
+    }
+
+    @Test
+    @DisplayName("Should revoke exactly the logged-out token and persist it")
+    void shouldRevokeSingleToken() {
+        // Arrange
+        when(tokenRevocationRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        tokenRevocationList.init();
+        Claims loggedOut = claims("john.doe@company.com", Instant.now());
+        Claims otherDevice = claims("john.doe@company.com", Instant.now());
+
+        // Act
+        tokenRevocationList.revokeToken(loggedOut);
+
+        // Assert
+        assertTrue(tokenRevocationList.isRevoked(loggedOut));
+        assertFalse(tokenRevocationList.isRevoked(otherDevice));
+        ArgumentCaptor<TokenRevocation> saved = ArgumentCaptor.forClass(TokenRevocation.class);
+        verify(tokenRevocationRepository).save(saved.capture());
+        assertEquals(loggedOut.getId(), saved.getValue().getJti());
+    }
+
+    @Test
+    @DisplayName("Should revoke tokens issued before a forced sign-out but not later ones")
+    void shouldRevokeAllForUser() {
+        // Arrange
+        when(tokenRevocationRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        tokenRevocationList.init();
+        Claims before = claims("john.doe@company.com", Instant.now().minus(1, ChronoUnit.HOURS));
+        Claims colleague = claims("jane.doe@company.com", Instant.now().minus(1, ChronoUnit.HOURS));
+
+        // Act
+        tokenRevocationList.revokeAllForUser("john.doe@company.com");
+        Claims after = claims("john.doe@company.com", Instant.now().plusSeconds(2));
+
+        // Assert
+        assertTrue(tokenRevocationList.isRevoked(before));
+        assertFalse(tokenRevocationList.isRevoked(after));
+        assertFalse(tokenRevocationList.isRevoked(colleague));
+    }
+
+    @Test
+    @DisplayName("Should restore revocations from the table on startup")
+    void shouldReloadFromTable() {
+        // Arrange - what an earlier run (or another node) persisted
+        Claims revoked = claims("john.doe@company.com", Instant.now());
+        Claims signedOut = claims("jane.doe@company.com", Instant.now().minus(1, ChronoUnit.HOURS));
+        when(tokenRevocationRepository.findByExpiresAtAfter(any())).thenReturn(List.of(
+                new TokenRevocation(revoked.getId(), "john.doe@company.com", null, revoked.getExpiration().toInstant()),
+                new TokenRevocation(null, "jane.doe@company.com", Instant.now(), Instant.now().plus(1, ChronoUnit.DAYS))));
+
+        // Act
+        tokenRevocationList.init();
+
+        // Assert
+        assertTrue(tokenRevocationList.isRevoked(revoked));
+        assertTrue(tokenRevocationList.isRevoked(signedOut));
+        assertFalse(tokenRevocationList.isRevoked(claims("john.doe@company.com", Instant.now())));
+        assertEquals(1.0, meterRegistry.get("auth.revocations.tokens").gauge().value());
+    }
+}
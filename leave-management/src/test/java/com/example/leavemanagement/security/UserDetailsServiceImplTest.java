@@ -0,0 +1,112 @@
+package com.example.leavemanagement.security;
+
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private UserDetailsServiceImpl userDetailsService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userDetailsService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(userDetailsService, "cacheTtl", Duration.ofMinutes(5));
+        userDetailsService.init();
+
+        user = new User(1L, "John Doe", "john.doe@company.com", "hash", Role.EMPLOYEE, null);
+    }
+
+    @Test
+    @DisplayName("Should query the database once and hand out a fresh principal each time")
+    void shouldCacheUserLookups() {
+        // Arrange
+        when(userRepository.findByEmail("john.doe@company.com")).thenReturn(Optional.of(user));
+
+        // Act - the first principal has its password erased, as Spring Security does after a login
+        UserDetails first = userDetailsService.loadUserByUsername("john.doe@company.com");
+        ((CredentialsContainer) first).eraseCredentials();
+        UserDetails second = userDetailsService.loadUserByUsername("john.doe@company.com");
+
+        // Assert
+        verify(userRepository, times(1)).findByEmail("john.doe@company.com");
+        assertNotSame(first, second);
+        assertEquals("hash", second.getPassword());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "user.details", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should read the new role after an eviction")
+    void shouldReloadAfterEvict() {
+        // Arrange
+        when(userRepository.findByEmail("john.doe@company.com")).thenReturn(Optional.of(user));
+        userDetailsService.loadUserByUsername("john.doe@company.com");
+
+        // Act
+        user.setRole(Role.ADMIN);
+        userDetailsService.evict("john.doe@company.com");
+        UserDetails reloaded = userDetailsService.loadUserByUsername("john.doe@company.com");
+
+        // Assert
+        assertEquals("ROLE_ADMIN", reloaded.getAuthorities().iterator().next().getAuthority());
+        verify(userRepository, times(2)).findByEmail("john.doe@company.com");
+    }
+
+    @Test
+    @DisplayName("Should not cache unknown users")
+    void shouldNotCacheMisses() {
+        when(userRepository.findByEmail("ghost@company.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost@company.com"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost@company.com"));
+        verify(userRepository, times(2)).findByEmail("ghost@company.com");
+    }
+
+    @Test
+    @DisplayName("Should store a rehashed password and drop the cached entry")
+    void shouldUpdatePassword() {
+        // Arrange
+        when(userRepository.findByEmail("john.doe@company.com")).thenReturn(Optional.of(user));
+        when(userRepository.updatePasswordByEmail("john.doe@company.com", "new-hash")).thenReturn(1);
+        UserDetails loaded = userDetailsService.loadUserByUsername("john.doe@company.com");
+
+        // Act
+        UserDetails updated = userDetailsService.updatePassword(loaded, "new-hash");
+        userDetailsService.loadUserByUsername("john.doe@company.com");
+
+        // Assert - only the password column is written, and the next load goes back to the database
+        assertEquals("new-hash", updated.getPassword());
+        verify(userRepository, never()).save(any());
+        verify(userRepository, times(2)).findByEmail("john.doe@company.com");
+    }
+}
@@ -1,5 +1,146 @@
 package com.example.leavemanagement.service;
 
+import com.example.leavemanagement.dto.request.ChangePasswordRequest;
+import com.example.leavemanagement.dto.request.RoleUpdateRequest;
+import com.example.leavemanagement.dto.request.SignupRequest;
+import com.example.leavemanagement.dto.response.ApiResponse;
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.repository.UserRepository;
+import com.example.leavemanagement.security.UserDetailsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
 public class AuthServiceTest {
-    
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private LeaveLedgerService leaveLedgerService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AuthService authService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User(1L, "John Doe", "john.doe@company.com", "old-hash", Role.EMPLOYEE, null);
+    }
+
+    @Test
+    @DisplayName("Should change the password and drop the cached principal")
+    void shouldChangePasswordAndEvict() {
+        // Arrange
+        when(userRepository.findByEmail("john.doe@company.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("old-password", "old-hash")).thenReturn(true);
+        when(passwordEncoder.encode("new-password")).thenReturn("new-hash");
+        when(userRepository.updatePasswordIfUnchanged("john.doe@company.com", "old-hash", "new-hash")).thenReturn(1);
+
+        // Act
+        ApiResponse response = authService.changePassword("john.doe@company.com",
+                new ChangePasswordRequest("old-password", "new-password"));
+
+        // Assert
+        assertTrue(response.getSuccess());
+        verify(userRepository).updatePasswordIfUnchanged("john.doe@company.com", "old-hash", "new-hash");
+        verify(userRepository, never()).save(any());
+        verify(userDetailsService).evict("john.doe@company.com");
+    }
+
+    @Test
+    @DisplayName("Should refuse a wrong current password without touching the cache")
+    void shouldRejectWrongCurrentPassword() {
+        when(userRepository.findByEmail("john.doe@company.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("wrong", "old-hash")).thenReturn(false);
+
+        ApiResponse response = authService.changePassword("john.doe@company.com",
+                new ChangePasswordRequest("wrong", "new-password"));
+
+        assertFalse(response.getSuccess());
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).updatePasswordIfUnchanged(anyString(), anyString(), anyString());
+        verify(userDetailsService, never()).evict(anyString());
+    }
+
+    @Test
+    @DisplayName("Should refuse the change if the password was changed after it was checked")
+    void shouldRejectPasswordChangedMeanwhile() {
+        // Arrange - another request replaced "old-hash" between the check and the update
+        when(userRepository.findByEmail("john.doe@company.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("old-password", "old-hash")).thenReturn(true);
+        when(passwordEncoder.encode("new-password")).thenReturn("new-hash");
+        when(userRepository.updatePasswordIfUnchanged("john.doe@company.com", "old-hash", "new-hash")).thenReturn(0);
+
+        // Act
+        ApiResponse response = authService.changePassword("john.doe@company.com",
+                new ChangePasswordRequest("old-password", "new-password"));
+
+        // Assert
+        assertFalse(response.getSuccess());
+        verify(userDetailsService, never()).evict(anyString());
+    }
+
+    @Test
+    @DisplayName("Should hash the new user's password before opening the transaction")
+    void shouldHashBeforeRegisterTransaction() {
+        // Arrange
+        SignupRequest request = new SignupRequest();
+        request.setName("Jane Doe");
+        request.setEmail("jane.doe@company.com");
+        request.setPassword("secret123");
+        when(userRepository.existsByEmail("jane.doe@company.com")).thenReturn(false);
+        when(passwordEncoder.encode("secret123")).thenReturn("jane-hash");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        ApiResponse response = authService.registerUser(request);
+
+        // Assert
+        assertTrue(response.getSuccess());
+        InOrder inOrder = inOrder(passwordEncoder, transactionManager, userRepository);
+        inOrder.verify(passwordEncoder).encode("secret123");
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(userRepository).save(argThat(saved -> "jane-hash".equals(saved.getPassword())));
+        verify(leaveLedgerService).recordOpening(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Should update the role and drop the cached principal")
+    void shouldUpdateRoleAndEvict() {
+        when(userRepository.updateRoleByEmail("john.doe@company.com", Role.ADMIN)).thenReturn(1);
+
+        ApiResponse response = authService.updateRole(new RoleUpdateRequest("john.doe@company.com", Role.ADMIN));
+
+        assertTrue(response.getSuccess());
+        verify(userRepository, never()).save(any());
+        verify(userDetailsService).evict("john.doe@company.com");
+    }
 }
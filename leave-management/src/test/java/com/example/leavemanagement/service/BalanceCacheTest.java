@@ -0,0 +1,72 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceCacheTest {
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private BalanceCache balanceCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(balanceCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(balanceCache, "ttl", Duration.ofMinutes(10));
+        balanceCache.init();
+    }
+
+    @Test
+    @DisplayName("Should load once, serve hits from memory and report hits and misses")
+    void shouldCountHitsAndMisses() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act - one miss, then two hits
+        for (int i = 0; i < 3; i++) {
+            balanceCache.get("john.doe@company.com", email -> {
+                loads.incrementAndGet();
+                return new LeaveBalanceResponseDto(20, 10, 5);
+            });
+        }
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tags("cache", "leave.balance", "result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "leave.balance", "result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should serve written-through balances without loading, and reload after invalidation")
+    void shouldWriteThroughAndInvalidate() {
+        // Arrange
+        balanceCache.put("john.doe@company.com", new LeaveBalanceResponseDto(17, 10, 5));
+
+        // Act & Assert - the put wins over the loader
+        LeaveBalanceResponseDto cached = balanceCache.get("john.doe@company.com", email -> fail("should not load"));
+        assertEquals(17, cached.getAnnualLeaveBalance());
+
+        // After a bulk job everything is read again
+        balanceCache.invalidateAll();
+        LeaveBalanceResponseDto reloaded = balanceCache.get("john.doe@company.com",
+                email -> new LeaveBalanceResponseDto(19, 11, 6));
+        assertEquals(19, reloaded.getAnnualLeaveBalance());
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto;
+import com.example.leavemanagement.model.AccrualRun;
+import com.example.leavemanagement.model.AccrualRunStatus;
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.repository.AccrualRunRepository;
+import com.example.leavemanagement.repository.LeaveRequestRepository;
+import com.example.leavemanagement.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the real job against H2 with tiny chunks, so even a handful of users spans several waves
+@SpringBootTest(properties = {"leave.accrual.chunk-size=2", "leave.accrual.workers=2"})
+@ActiveProfiles("test")
+class LeaveAccrualServiceTest {
+
+    // April 2030 has 30 days
+    private static final YearMonth APRIL = YearMonth.of(2030, 4);
+
+    @Autowired
+    private LeaveAccrualService leaveAccrualService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private AccrualRunRepository accrualRunRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    private User veteran;
+    private User midMonthJoiner;
+    private User futureJoiner;
+
+    @BeforeEach
+    void setUp() {
+        leaveRequestRepository.deleteAll();
+        accrualRunRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // Arrange - default balances are 20/10/5
+        veteran = createUser("veteran@company.com", "2020-01-01");
+        midMonthJoiner = createUser("joiner@company.com", "2030-04-16");
+        futureJoiner = createUser("future@company.com", "2030-05-03");
+        for (int i = 0; i < 4; i++) {
+            createUser("staff" + i + "@company.com", "2021-06-01");
+        }
+        // Users saved directly through the repository have no history yet
+        leaveLedgerService.backfillOpeningEntries();
+    }
+
+    @Test
+    @DisplayName("Should credit every user once, pro-rated by join date")
+    void shouldCreditAllUsersProRated() {
+        // Act
+        AccrualRun run = leaveAccrualService.accrue(APRIL);
+
+        // Assert - a full month is 2/1/1, half a month rounds to 1/1/1, joining later gives nothing
+        assertEquals(AccrualRunStatus.COMPLETED, run.getStatus());
+        assertEquals(6, run.getUsersCredited());
+        assertBalances(veteran, 22, 11, 6);
+        assertBalances(midMonthJoiner, 21, 11, 6);
+        assertBalances(futureJoiner, 20, 10, 5);
+
+        // The ledger tells the same story as the balance columns
+        LeaveBalanceResponseDto fromLedger = leaveLedgerService.balanceAsOf(midMonthJoiner.getId(), LocalDate.now());
+        assertEquals(21, fromLedger.getAnnualLeaveBalance());
+        assertEquals(11, fromLedger.getSickLeaveBalance());
+        assertEquals(6, fromLedger.getCasualLeaveBalance());
+
+        // Running the same month again is a no-op
+        leaveAccrualService.accrue(APRIL);
+        assertBalances(veteran, 22, 11, 6);
+    }
+
+    @Test
+    @DisplayName("Should resume from the checkpoint without crediting anyone twice")
+    void shouldResumeFromCheckpoint() {
+        // Arrange - a crashed run got past the veteran, and the joiner's chunk committed after the checkpoint
+        AccrualRun crashed = new AccrualRun(APRIL.atDay(1));
+        crashed.setLastUserId(veteran.getId());
+        accrualRunRepository.save(crashed);
+        jdbcTemplate.update("UPDATE users SET last_accrual_month = ? WHERE id = ?", APRIL.atDay(1), midMonthJoiner.getId());
+
+        // Act
+        AccrualRun run = leaveAccrualService.accrue(APRIL);
+
+        // Assert - only the four staff users were left to credit
+        assertEquals(AccrualRunStatus.COMPLETED, run.getStatus());
+        assertEquals(4, run.getUsersCredited());
+        assertBalances(veteran, 20, 10, 5);
+        assertBalances(midMonthJoiner, 20, 10, 5);
+        assertEquals(22, userRepository.findByEmail("staff3@company.com").get().getAnnualLeaveBalance());
+    }
+
+    @Test
+    @DisplayName("Should finish a run left RUNNING when the application starts")
+    void shouldResumeInterruptedRunOnStartup() {
+        // Arrange - the process died mid-run, after the veteran's chunk
+        AccrualRun crashed = new AccrualRun(APRIL.atDay(1));
+        crashed.setLastUserId(veteran.getId());
+        accrualRunRepository.save(crashed);
+
+        // Act
+        leaveAccrualService.resumeInterruptedRuns();
+
+        // Assert
+        AccrualRun run = accrualRunRepository.findByMonth(APRIL.atDay(1)).get();
+        assertEquals(AccrualRunStatus.COMPLETED, run.getStatus());
+        assertEquals(22, userRepository.findByEmail("staff0@company.com").get().getAnnualLeaveBalance());
+        assertTrue(accrualRunRepository.findByStatus(AccrualRunStatus.RUNNING).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should leave a month alone while another node holds its lease, and take it over once it expires")
+    void shouldRespectAnotherNodesLease() {
+        // Arrange - another node claimed April and is still within its lease
+        AccrualRun held = new AccrualRun(APRIL.atDay(1));
+        held.setLeaseUntil(LocalDateTime.now().plusMinutes(5));
+        held = accrualRunRepository.save(held);
+
+        // Act
+        AccrualRun run = leaveAccrualService.accrue(APRIL);
+        leaveAccrualService.resumeInterruptedRuns();
+
+        // Assert - nobody credited, nothing overwritten
+        assertEquals(AccrualRunStatus.RUNNING, run.getStatus());
+        assertBalances(veteran, 20, 10, 5);
+
+        // That node died: its lease runs out and we finish the month
+        jdbcTemplate.update("UPDATE accrual_runs SET lease_until = ? WHERE id = ?", LocalDateTime.now().minusMinutes(1), held.getId());
+        run = leaveAccrualService.accrue(APRIL);
+        assertEquals(AccrualRunStatus.COMPLETED, run.getStatus());
+        assertNull(run.getLeaseUntil());
+        assertBalances(veteran, 22, 11, 6);
+    }
+
+    @Test
+    @DisplayName("Should refuse to resume a month older than one already completed")
+    void shouldRefuseResumeBehindCompletedMonth() {
+        // Arrange - April was interrupted, then May ran to completion
+        accrualRunRepository.save(new AccrualRun(APRIL.atDay(1)));
+        leaveAccrualService.accrue(APRIL.plusMonths(1));
+
+        // Act & Assert - the guard would skip everyone May already credited
+        assertThrows(IllegalStateException.class, () -> leaveAccrualService.accrue(APRIL));
+        assertEquals(AccrualRunStatus.RUNNING, accrualRunRepository.findByMonth(APRIL.atDay(1)).get().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should pro-rate by the days employed in the month")
+    void shouldProrate() {
+        assertEquals(2, LeaveAccrualService.prorate(2, null, APRIL));
+        assertEquals(2, LeaveAccrualService.prorate(2, LocalDate.of(2030, 4, 1), APRIL));
+        assertEquals(1, LeaveAccrualService.prorate(2, LocalDate.of(2030, 4, 16), APRIL));
+        assertEquals(0, LeaveAccrualService.prorate(2, LocalDate.of(2030, 4, 30), APRIL));
+        assertEquals(0, LeaveAccrualService.prorate(2, LocalDate.of(2030, 5, 1), APRIL));
+    }
+
+    private User createUser(String email, String joined) {
+        User user = userRepository.save(new User(null, email, email, "hash", Role.EMPLOYEE, null));
+        // createdAt is set by @PrePersist, so backdate it directly
+        jdbcTemplate.update("UPDATE users SET created_at = ? WHERE id = ?", LocalDate.parse(joined).atStartOfDay(), user.getId());
+        return user;
+    }
+
+    private void assertBalances(User user, int annual, int sick, int casual) {
+        User reloaded = userRepository.findById(user.getId()).get();
+        assertEquals(annual, reloaded.getAnnualLeaveBalance(), user.getEmail() + " annual");
+        assertEquals(sick, reloaded.getSickLeaveBalance(), user.getEmail() + " sick");
+        assertEquals(casual, reloaded.getCasualLeaveBalance(), user.getEmail() + " casual");
+    }
+}
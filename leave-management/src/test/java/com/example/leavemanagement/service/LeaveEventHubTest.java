@@ -0,0 +1,170 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveStatusEventDto;
+import com.example.leavemanagement.model.LeaveStatus;
+import com.example.leavemanagement.model.LeaveType;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveEventHubTest {
+
+    private LeaveEventHub hub;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hub = new LeaveEventHub();
+        ReflectionTestUtils.setField(hub, "meterRegistry", meterRegistry);
+        // Configured like Spring Boot's ObjectMapper
+        ReflectionTestUtils.setField(hub, "objectMapper", Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+        ReflectionTestUtils.setField(hub, "timeout", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(hub, "bufferSize", 2);
+        ReflectionTestUtils.setField(hub, "maxStreamsPerUser", 2);
+        ReflectionTestUtils.setField(hub, "writerThreads", 2);
+        ReflectionTestUtils.invokeMethod(hub, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(hub, "shutdown");
+    }
+
+    // Stands in for the HTTP response: records what would be written, optionally stalling like a slow client
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> written = new CopyOnWriteArrayList<>();
+        private final CountDownLatch stall;
+
+        RecordingEmitter(CountDownLatch stall) {
+            this.stall = stall;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            try {
+                stall.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder text = new StringBuilder();
+            items.forEach(item -> text.append(item.getData()));
+            written.add(text.toString());
+        }
+
+        String awaitEvent(String fragment) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (System.nanoTime() < deadline) {
+                for (String event : written) {
+                    if (event.contains(fragment)) {
+                        return event;
+                    }
+                }
+                Thread.sleep(10);
+            }
+            return fail("No event containing " + fragment + " in " + written);
+        }
+    }
+
+    private static RecordingEmitter emitter() {
+        return new RecordingEmitter(new CountDownLatch(0));
+    }
+
+    @Test
+    @DisplayName("Should push a status change only to the owner's streams")
+    void shouldPublishToOwnerOnly() throws Exception {
+        // Arrange
+        RecordingEmitter john = emitter();
+        RecordingEmitter jane = emitter();
+        hub.registerUser("john@company.com", john);
+        hub.registerUser("jane@company.com", jane);
+        LeaveStatusEventDto approved = new LeaveStatusEventDto(7L, LeaveStatus.APPROVED, LeaveType.ANNUAL,
+                LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 5), LocalDateTime.of(2025, 2, 20, 10, 0));
+
+        // Act
+        hub.publishToUser("john@company.com", LeaveService.LEAVE_STATUS_EVENT, approved);
+
+        // Assert
+        String event = john.awaitEvent("event:leave-status");
+        assertTrue(event.contains("\"leaveId\":7"));
+        assertTrue(event.contains("\"status\":\"APPROVED\""));
+        assertTrue(event.contains("\"startDate\":\"2025-03-03\""), "dates as ISO strings, like the REST API");
+        jane.awaitEvent("connected");
+        assertTrue(jane.written.stream().noneMatch(e -> e.contains("leave-status")));
+    }
+
+    @Test
+    @DisplayName("Should close a stream whose client stops reading instead of buffering without limit")
+    void shouldDropSlowConsumer() throws Exception {
+        // Arrange - the first write never completes until released
+        CountDownLatch stall = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stall);
+        RecordingEmitter healthy = emitter();
+        LeaveEventHub.Stream slowStream = hub.registerAdmin(slow);
+        LeaveEventHub.Stream healthyStream = hub.registerAdmin(healthy);
+
+        // Act - "connected" is stuck in the write; the buffer of 2 then fills up.
+        // The healthy client keeps up with each event before the next one comes
+        for (int i = 0; i < 4; i++) {
+            hub.publishToAdmins(LeaveService.LEAVE_APPLIED_EVENT, "application " + i);
+            healthy.awaitEvent("application " + i);
+        }
+
+        // Assert
+        assertFalse(slowStream.isOpen());
+        assertTrue(healthyStream.isOpen());
+        assertEquals(1.0, meterRegistry.get("leave.events.dropped").counter().count());
+        assertEquals(1.0, meterRegistry.get("leave.events.streams").tag("stream", "admin").gauge().value());
+        stall.countDown();
+    }
+
+    @Test
+    @DisplayName("Should give up the oldest stream when a user opens too many")
+    void shouldCapStreamsPerUser() {
+        // Act - the cap is 2
+        LeaveEventHub.Stream first = hub.registerUser("john@company.com", emitter());
+        LeaveEventHub.Stream second = hub.registerUser("john@company.com", emitter());
+        LeaveEventHub.Stream third = hub.registerUser("john@company.com", emitter());
+
+        // Assert
+        assertFalse(first.isOpen());
+        assertTrue(second.isOpen());
+        assertTrue(third.isOpen());
+        assertEquals(2.0, meterRegistry.get("leave.events.streams").tag("stream", "user").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should close every stream of a user who is signed out everywhere")
+    void shouldDisconnectUser() {
+        // Arrange
+        LeaveEventHub.Stream stream = hub.registerUser("john@company.com", emitter());
+
+        // Act
+        hub.disconnectUser("john@company.com");
+
+        // Assert
+        assertFalse(stream.isOpen());
+        assertEquals(0.0, meterRegistry.get("leave.events.streams").tag("stream", "user").gauge().value());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveExportFormat;
+import com.example.leavemanagement.dto.leave.LeaveRequestFilterDto;
+import com.example.leavemanagement.dto.leave.LeaveResponseDto;
+import com.example.leavemanagement.model.LeaveStatus;
+import com.example.leavemanagement.model.LeaveType;
+import com.example.leavemanagement.repository.LeaveRequestRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaveExportServiceTest {
+
+    @Mock
+    private LeaveRequestRepository leaveRequestRepository;
+
+    // A real ObjectMapper configured like Spring Boot's (ISO dates instead of arrays)
+    @Spy
+    private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules()
+            .disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @InjectMocks
+    private LeaveExportService leaveExportService;
+
+    @Test
+    @DisplayName("Should write one JSON document per line in NDJSON format")
+    void shouldExportNdjson() throws Exception {
+        // Arrange
+        when(leaveRequestRepository.streamForExport(any(), any(), any(), any(), any()))
+                .thenReturn(Stream.of(row(1L, "Vacation"), row(2L, "Doctor visit")));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        leaveExportService.exportLeaveRequests(new LeaveRequestFilterDto(), LeaveExportFormat.NDJSON, out);
+
+        // Assert - every line must parse on its own
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1, objectMapper.readTree(lines[0]).get("id").asInt());
+        assertEquals("2025-03-03", objectMapper.readTree(lines[0]).get("startDate").asText());
+        assertEquals("Doctor visit", objectMapper.readTree(lines[1]).get("reason").asText());
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header and quote fields containing commas or quotes")
+    void shouldExportCsvWithEscaping() throws Exception {
+        // Arrange
+        when(leaveRequestRepository.streamForExport(any(), any(), any(), any(), any()))
+                .thenReturn(Stream.of(row(1L, "Family trip, abroad"), row(2L, "Said \"urgent\"")));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        leaveExportService.exportLeaveRequests(new LeaveRequestFilterDto(), LeaveExportFormat.CSV, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,userName,userEmail,startDate,endDate,reason,leaveType,status,appliedAt", lines[0]);
+        assertEquals("1,John Doe,john.doe@company.com,2025-03-03,2025-03-05,\"Family trip, abroad\","
+                + "ANNUAL,APPROVED,2025-02-01T10:15", lines[1]);
+        assertTrue(lines[2].contains(",\"Said \"\"urgent\"\"\","));
+    }
+
+    // Helper method to build an exported row
+    private LeaveResponseDto row(Long id, String reason) {
+        return new LeaveResponseDto(id, "John Doe", "john.doe@company.com",
+                LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 5), reason,
+                LeaveType.ANNUAL, LeaveStatus.APPROVED, LocalDateTime.of(2025, 2, 1, 10, 15));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto;
+import com.example.leavemanagement.model.LeaveBalanceSnapshot;
+import com.example.leavemanagement.model.LeaveLedgerEntry;
+import com.example.leavemanagement.model.LeaveType;
+import com.example.leavemanagement.model.LedgerEntryType;
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.repository.LeaveBalanceSnapshotRepository;
+import com.example.leavemanagement.repository.LeaveLedgerRepository;
+import com.example.leavemanagement.repository.LeaveRequestRepository;
+import com.example.leavemanagement.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaveLedgerServiceTest {
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @Autowired
+    private LeaveLedgerRepository leaveLedgerRepository;
+
+    @Autowired
+    private LeaveBalanceSnapshotRepository leaveBalanceSnapshotRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Snapshot anything, straight away
+        ReflectionTestUtils.setField(leaveLedgerService, "snapshotLagSeconds", 0L);
+        ReflectionTestUtils.setField(leaveLedgerService, "snapshotMinEntries", 1);
+        leaveBalanceSnapshotRepository.deleteAll();
+        leaveLedgerRepository.deleteAll();
+        leaveRequestRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = userRepository.save(new User(null, "Ledger User", "ledger@company.com", "hash", Role.EMPLOYEE, null));
+    }
+
+    @Test
+    @DisplayName("Should rebuild balances from the latest snapshot plus the entries after it")
+    void shouldReadSnapshotPlusTail() throws Exception {
+        // Arrange - opening 20/10/5, three annual days taken, then a snapshot
+        leaveLedgerService.recordOpening(user);
+        leaveLedgerService.record(user.getId(), LeaveType.ANNUAL, -3, LedgerEntryType.LEAVE_APPLIED, 7L);
+        // created_at has millisecond precision; make sure the cutoff is strictly after our entries
+        Thread.sleep(5);
+        assertEquals(1, leaveLedgerService.takeSnapshots());
+
+        // ... and a tail after it, including an untracked type that must be ignored
+        leaveLedgerService.record(user.getId(), LeaveType.ANNUAL, 1, LedgerEntryType.LEAVE_CANCELLED, 7L);
+        leaveLedgerService.record(user.getId(), LeaveType.SICK, -2, LedgerEntryType.LEAVE_APPLIED, 8L);
+        leaveLedgerService.record(user.getId(), LeaveType.UNPAID, -4, LedgerEntryType.LEAVE_APPLIED, 9L);
+
+        // Act
+        LeaveBalanceResponseDto balance = leaveLedgerService.balanceAsOf(user.getId(), LocalDate.now());
+
+        // Assert
+        assertEquals(18, balance.getAnnualLeaveBalance());
+        assertEquals(8, balance.getSickLeaveBalance());
+        assertEquals(5, balance.getCasualLeaveBalance());
+
+        List<LeaveBalanceSnapshot> snapshots = leaveBalanceSnapshotRepository.findAll();
+        assertEquals(1, snapshots.size());
+        assertEquals(17, snapshots.get(0).getAnnualLeaveBalance());
+
+        // Nothing existed yet yesterday
+        LeaveBalanceResponseDto yesterday = leaveLedgerService.balanceAsOf(user.getId(), LocalDate.now().minusDays(1));
+        assertEquals(0, yesterday.getAnnualLeaveBalance());
+
+        // A second snapshot folds the tail into the first one
+        Thread.sleep(5);
+        assertEquals(1, leaveLedgerService.takeSnapshots());
+        assertEquals(0, leaveLedgerService.takeSnapshots());
+        assertEquals(18, leaveLedgerService.balanceAsOf(user.getId(), LocalDate.now()).getAnnualLeaveBalance());
+    }
+
+    @Test
+    @DisplayName("Should backfill an opening entry that reconciles the ledger with the balance columns")
+    void shouldBackfillOpeningEntries() {
+        // Arrange - a pre-ledger user with 12 annual days, and one entry already written since
+        user.setAnnualLeaveBalance(12);
+        userRepository.save(user);
+        leaveLedgerService.record(user.getId(), LeaveType.ANNUAL, -2, LedgerEntryType.LEAVE_APPLIED, 1L);
+
+        // Act - twice, the second run must not add anything
+        leaveLedgerService.backfillOpeningEntries();
+        leaveLedgerService.backfillOpeningEntries();
+
+        // Assert
+        List<LeaveLedgerEntry> entries = leaveLedgerRepository.findByUserIdOrderByIdAsc(user.getId());
+        assertEquals(4, entries.size());
+        LeaveBalanceResponseDto balance = leaveLedgerService.balanceAsOf(user.getId(), LocalDate.now());
+        assertEquals(12, balance.getAnnualLeaveBalance());
+        assertEquals(10, balance.getSickLeaveBalance());
+        assertEquals(5, balance.getCasualLeaveBalance());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto;
+import com.example.leavemanagement.dto.leave.LeaveRequestDto;
+import com.example.leavemanagement.exception.InsufficientLeaveBalanceException;
+import com.example.leavemanagement.model.LeaveType;
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.repository.LeaveRequestRepository;
+import com.example.leavemanagement.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Stress test against the real service and database: many threads apply for leave as the same user
+// at the same moment, and the balance must end up exactly right - never negative, never double-spent.
+// The lock timeout is raised so a slow CI machine cannot turn queueing into spurious 409s
+@SpringBootTest(properties = "leave.locks.wait-timeout-ms=60000")
+@ActiveProfiles("test")
+class LeaveServiceConcurrencyTest {
+
+    private static final int THREADS = 200;
+    private static final String EMAIL = "stress@company.com";
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private WorkingDayCalendar workingDayCalendar;
+
+    @BeforeEach
+    void setUp() {
+        leaveRequestRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        // Default balances: 20 annual days
+        userRepository.save(new User(null, "Stress Test", EMAIL, "hash", Role.EMPLOYEE, null));
+    }
+
+    @Test
+    @DisplayName("200 concurrent one-day applications should spend exactly the 20 available days")
+    void concurrentApplicationsShouldNotOverdraw() throws Exception {
+        List<LocalDate> workingDays = upcomingWorkingDays(THREADS);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        // Arrange - every thread waits on the latch so they all hit the service together
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            LocalDate day = workingDays.get(i);
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    leaveService.applyLeave(new LeaveRequestDto(day, day, "Stress", LeaveType.ANNUAL), EMAIL);
+                    accepted.incrementAndGet();
+                } catch (InsufficientLeaveBalanceException e) {
+                    refused.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        // Assert - no other failure type, and the books balance
+        assertEquals(20, accepted.get());
+        assertEquals(THREADS - 20, refused.get());
+        LeaveBalanceResponseDto balance = leaveService.getLeaveBalance(EMAIL);
+        assertEquals(0, balance.getAnnualLeaveBalance());
+        assertEquals(20, leaveService.getMyLeaveRequests(EMAIL).size());
+    }
+
+    // One-day leaves on distinct working days, so each application costs exactly one day
+    private List<LocalDate> upcomingWorkingDays(int count) {
+        List<LocalDate> days = new ArrayList<>();
+        LocalDate day = LocalDate.now().plusDays(1);
+        while (days.size() < count) {
+            if (workingDayCalendar.isWorkingDay(day)) {
+                days.add(day);
+            }
+            day = day.plusDays(1);
+        }
+        return days;
+    }
+}
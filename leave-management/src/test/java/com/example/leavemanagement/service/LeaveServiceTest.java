@@ -1,26 +1,48 @@
 package com.example.leavemanagement.service;
 
+import com.example.leavemanagement.dto.leave.LeaveBalanceResponseDto;
 import com.example.leavemanagement.dto.leave.LeaveRequestDto;
+import com.example.leavemanagement.dto.leave.LeaveRequestFilterDto;
+import com.example.leavemanagement.dto.leave.LeaveRequestPageDto;
 import com.example.leavemanagement.dto.leave.LeaveResponseDto;
+import com.example.leavemanagement.dto.leave.LeaveStatusEventDto;
 import com.example.leavemanagement.dto.response.ApiResponse;
 import com.example.leavemanagement.exception.InsufficientLeaveBalanceException;
+import com.example.leavemanagement.exception.InvalidLeaveDatesException;
+import com.example.leavemanagement.exception.OverlappingLeaveException;
 import com.example.leavemanagement.model.*;
 import com.example.leavemanagement.repository.LeaveRequestRepository;
 import com.example.leavemanagement.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +54,36 @@ class LeaveServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private OptimisticLockRetryExecutor optimisticLockRetryExecutor;
+
+    @Mock
+    private StripedUserLock stripedUserLock;
+
+    @Mock
+    private WorkingDayCalendar workingDayCalendar;
+
+    @Mock
+    private LeaveLedgerService leaveLedgerService;
+
+    @Mock
+    private BalanceCache balanceCache;
+
+    @Mock
+    private UserChangeVersions userChangeVersions;
+
+    @Mock
+    private LeaveEventHub leaveEventHub;
+
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private LeaveService leaveService;
 
@@ -44,6 +96,17 @@ class LeaveServiceTest {
 // We use Getters and Setters to manipulate the data as needed in tests
     @BeforeEach
     void setUp() {
+        // The retry executor and the user lock just run the work once here -
+        // they have their own tests (OptimisticLockRetryExecutorTest, LeaveServiceConcurrencyTest)
+        lenient().when(optimisticLockRetryExecutor.inTransaction(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(stripedUserLock.withLock(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        // Every day counts unless a test says otherwise (WorkingDayCalendarTest covers the real rules)
+        lenient().when(workingDayCalendar.countWorkingDays(any(), any()))
+                .thenAnswer(invocation -> (int) java.time.temporal.ChronoUnit.DAYS.between(
+                        invocation.<LocalDate>getArgument(0), invocation.<LocalDate>getArgument(1).plusDays(1)));
+
         // Setup test user with leave balances
         testUser = new User();
         testUser.setId(1L);
@@ -81,8 +144,10 @@ class LeaveServiceTest {
         // Here we replace the user repository's methods of getting data from the database with our custom responses
         // The functions mentioned below are the functions from the leave service that we are mocking
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(userRepository.deductAnnualLeaveBalance(1L, 3)).thenReturn(1);
         when(leaveRequestRepository.save(any(LeaveRequest.class))).thenReturn(leaveRequest);
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        LeaveBalanceResponseDto balanceAfter = new LeaveBalanceResponseDto(17, 10, 5);
+        when(userRepository.findBalanceById(1L)).thenReturn(Optional.of(balanceAfter));
 
         // Act
         // This is where we call the actual method we want to test with the leave request DTO and user email
@@ -94,20 +159,24 @@ class LeaveServiceTest {
         assertNotNull(result);
         assertEquals(testUser.getName(), result.getUserName());
         assertEquals(testUser.getEmail(), result.getUserEmail());
-        assertEquals(17, testUser.getAnnualLeaveBalance()); // 20 - 3 days = 17
         
         // Here we chcek if the functions we mocked were called with the expected parameters
-        // The mock functions were called properly, so we verify that
-        verify(userRepository).save(testUser);
+        // The balance is deducted by one conditional UPDATE (3 days), not by saving the whole User
+        verify(userRepository).deductAnnualLeaveBalance(1L, 3);
+        verify(userRepository, never()).save(any());
         verify(leaveRequestRepository).save(any(LeaveRequest.class));
+        // And the deduction is written to the ledger, linked to the request
+        verify(leaveLedgerService).record(1L, LeaveType.ANNUAL, -3, LedgerEntryType.LEAVE_APPLIED, 1L);
+        // The balance cache gets the new balances straight away
+        verify(balanceCache).put("john.doe@company.com", balanceAfter);
     }
 
     @Test
     @DisplayName("Should throw exception when insufficient leave balance")
     void shouldThrowExceptionWhenInsufficientBalance() {
-        // Arrange - Set very low balance
-        testUser.setAnnualLeaveBalance(1);
+        // Arrange - The conditional UPDATE matches no row when the balance is too low
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(userRepository.deductAnnualLeaveBalance(1L, 3)).thenReturn(0);
 
         // Act & Assert
         // Here we expect the method to throw an InsufficientLeaveBalanceException
@@ -125,6 +194,95 @@ class LeaveServiceTest {
         verify(userRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Should charge only working days and refuse a leave made only of weekends or holidays")
+    void shouldChargeWorkingDaysOnly() {
+        // Arrange - the 3-day range contains a weekend day, so only 2 days are charged
+        when(workingDayCalendar.countWorkingDays(leaveRequestDto.getStartDate(), leaveRequestDto.getEndDate())).thenReturn(2);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(userRepository.deductAnnualLeaveBalance(1L, 2)).thenReturn(1);
+        when(leaveRequestRepository.save(any(LeaveRequest.class))).thenReturn(leaveRequest);
+
+        // Act
+        leaveService.applyLeave(leaveRequestDto, "john.doe@company.com");
+
+        // Assert - and the charged days are stored on the request for a later refund
+        verify(userRepository).deductAnnualLeaveBalance(1L, 2);
+        verify(leaveRequestRepository).save(argThat(saved -> saved.getWorkingDays() == 2));
+
+        // A range with no working day at all is refused before we lock or touch the database
+        when(workingDayCalendar.countWorkingDays(leaveRequestDto.getStartDate(), leaveRequestDto.getEndDate())).thenReturn(0);
+        assertThrows(InvalidLeaveDatesException.class,
+                () -> leaveService.applyLeave(leaveRequestDto, "john.doe@company.com"));
+        verify(stripedUserLock, times(1)).withLock(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should refund the working days stored at apply time on cancel")
+    void shouldRefundStoredWorkingDays() {
+        // Arrange - 3 calendar days, but only 2 were charged when the leave was applied
+        leaveRequest.setWorkingDays(2);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(leaveRequestRepository.findById(1L)).thenReturn(Optional.of(leaveRequest));
+        when(leaveRequestRepository.transitionStatus(1L, LeaveStatus.PENDING, LeaveStatus.CANCELLED)).thenReturn(1);
+
+        // Act
+        leaveService.cancelLeaveRequest(1L, "john.doe@company.com");
+
+        // Assert - the calendar is not consulted again, the stored value wins
+        verify(userRepository).restoreAnnualLeaveBalance(1L, 2);
+        verify(leaveLedgerService).record(1L, LeaveType.ANNUAL, 2, LedgerEntryType.LEAVE_CANCELLED, 1L);
+        verify(workingDayCalendar, never()).countWorkingDays(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a leave that overlaps an existing one before touching the balance")
+    void shouldRejectOverlappingLeave() {
+        // Arrange - the user already has a leave covering the day after tomorrow
+        LeaveInterval existing = new LeaveInterval(7L, LocalDate.now().plusDays(2), LocalDate.now().plusDays(4));
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(leaveRequestRepository.findOverlappingIntervals(1L, LeaveService.ACTIVE_STATUSES,
+                leaveRequestDto.getStartDate(), leaveRequestDto.getEndDate(), Limit.of(1))).thenReturn(List.of(existing));
+
+        // Act & Assert
+        OverlappingLeaveException exception = assertThrows(
+            OverlappingLeaveException.class,
+            () -> leaveService.applyLeave(leaveRequestDto, "john.doe@company.com")
+        );
+
+        // The message names the request we collided with
+        assertTrue(exception.getMessage().contains("#7"));
+        verify(userRepository, never()).deductAnnualLeaveBalance(anyLong(), anyInt());
+        verify(leaveRequestRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should name the winner when the exclusion constraint refuses a leave another node inserted first")
+    void shouldMapExclusionViolationToOverlap() {
+        // Arrange - our check found nothing, but the INSERT hits the Postgres exclusion constraint
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(userRepository.deductAnnualLeaveBalance(1L, 3)).thenReturn(1);
+        when(leaveRequestRepository.findOverlappingIntervals(eq(1L), any(), any(), any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new LeaveInterval(9L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(2))));
+        when(leaveRequestRepository.save(any(LeaveRequest.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        // Act & Assert - the same 409 as a plain overlap
+        OverlappingLeaveException exception = assertThrows(
+            OverlappingLeaveException.class,
+            () -> leaveService.applyLeave(leaveRequestDto, "john.doe@company.com")
+        );
+        assertTrue(exception.getMessage().contains("#9"));
+
+        // Any other integrity violation is not an overlap
+        when(leaveRequestRepository.findOverlappingIntervals(eq(1L), any(), any(), any(), any())).thenReturn(List.of());
+        when(leaveRequestRepository.save(any(LeaveRequest.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("null value in column", "23502")));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> leaveService.applyLeave(leaveRequestDto, "john.doe@company.com"));
+    }
+
     @Test
     @DisplayName("Should cancel pending leave request successfully")
     void shouldCancelLeaveRequestSuccessfully() {
@@ -132,8 +290,7 @@ class LeaveServiceTest {
         leaveRequest.setStatus(LeaveStatus.PENDING);
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
         when(leaveRequestRepository.findById(1L)).thenReturn(Optional.of(leaveRequest));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
-        when(leaveRequestRepository.save(any(LeaveRequest.class))).thenReturn(leaveRequest);
+        when(leaveRequestRepository.transitionStatus(1L, LeaveStatus.PENDING, LeaveStatus.CANCELLED)).thenReturn(1);
 
         // Act
         ApiResponse response = leaveService.cancelLeaveRequest(1L, "john.doe@company.com");
@@ -141,11 +298,29 @@ class LeaveServiceTest {
         // Assert
         assertTrue(response.getSuccess());
         assertEquals("Leave request cancelled successfully", response.getMessage());
-        assertEquals(LeaveStatus.CANCELLED, leaveRequest.getStatus());
-        assertEquals(23, testUser.getAnnualLeaveBalance()); // Balance restored: 20 + 3 = 23
         
-        verify(userRepository).save(testUser);
-        verify(leaveRequestRepository).save(leaveRequest);
+        // Balance restored with a relative UPDATE: +3 days (no stored working days, so every calendar day was charged)
+        verify(userRepository).restoreAnnualLeaveBalance(1L, 3);
+        verify(userRepository, never()).save(any());
+        // HR hears about it through the outbox
+        verify(notificationOutbox).leaveCancelled(leaveRequest, "john.doe@company.com", testUser.getName());
+    }
+
+    @Test
+    @DisplayName("Should not refund twice when a concurrent cancel already moved the request")
+    void shouldNotRefundWhenStatusTransitionLoses() {
+        // Arrange - we read PENDING, but by the time our UPDATE runs the row is no longer pending
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(leaveRequestRepository.findById(1L)).thenReturn(Optional.of(leaveRequest));
+        when(leaveRequestRepository.transitionStatus(1L, LeaveStatus.PENDING, LeaveStatus.CANCELLED)).thenReturn(0);
+
+        // Act
+        ApiResponse response = leaveService.cancelLeaveRequest(1L, "john.doe@company.com");
+
+        // Assert
+        assertFalse(response.getSuccess());
+        verify(userRepository, never()).restoreAnnualLeaveBalance(anyLong(), anyInt());
+        verify(notificationOutbox, never()).leaveCancelled(any(), anyString(), anyString());
     }
 
     @Test
@@ -154,7 +329,7 @@ class LeaveServiceTest {
         // Arrange
         leaveRequest.setStatus(LeaveStatus.PENDING);
         when(leaveRequestRepository.findById(1L)).thenReturn(Optional.of(leaveRequest));
-        when(leaveRequestRepository.save(any(LeaveRequest.class))).thenReturn(leaveRequest);
+        when(leaveRequestRepository.transitionStatus(1L, LeaveStatus.PENDING, LeaveStatus.APPROVED)).thenReturn(1);
 
         // Act
         ApiResponse response = leaveService.approveLeaveRequest(1L);
@@ -162,8 +337,90 @@ class LeaveServiceTest {
         // Assert
         assertTrue(response.getSuccess());
         assertEquals("Leave request approved successfully", response.getMessage());
-        assertEquals(LeaveStatus.APPROVED, leaveRequest.getStatus());
         
-        verify(leaveRequestRepository).save(leaveRequest);
+        verify(leaveRequestRepository).transitionStatus(1L, LeaveStatus.PENDING, LeaveStatus.APPROVED);
+        // No transaction in this test, so the owner's version and the business counter are bumped right away
+        verify(userChangeVersions).bump(leaveRequest.getUser().getEmail());
+        verify(notificationOutbox).leaveDecided(leaveRequest, leaveRequest.getUser().getEmail(),
+                leaveRequest.getUser().getName(), LeaveStatus.APPROVED, null);
+        verify(leaveEventHub).publishToUser(eq(leaveRequest.getUser().getEmail()), eq(LeaveService.LEAVE_STATUS_EVENT),
+                argThat(event -> event instanceof LeaveStatusEventDto status && status.getStatus() == LeaveStatus.APPROVED));
+        assertEquals(1.0, meterRegistry.get("leave.approvals").tag("leave_type", "ANNUAL").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should return a keyset page with a cursor that resumes after the last row")
+    void shouldPaginateAllLeaveRequestsWithCursor() {
+        // Arrange
+        // Three rows come back for a page size of 2, so there must be a next page
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 9, 30);
+        LeaveResponseDto newest = createLeaveResponse(3L, now);
+        LeaveResponseDto middle = createLeaveResponse(2L, now.minusHours(1));
+        LeaveResponseDto oldest = createLeaveResponse(1L, now.minusHours(2));
+        when(leaveRequestRepository.findPage(any(), any(), any(), any(), any(), isNull(), isNull(), eq(Limit.of(3))))
+                .thenReturn(new ArrayList<>(List.of(newest, middle, oldest)));
+
+        // Act
+        LeaveRequestPageDto firstPage = leaveService.getAllLeaveRequests(new LeaveRequestFilterDto(), null, 2);
+
+        // Assert
+        assertEquals(2, firstPage.getItems().size());
+        assertEquals(3L, firstPage.getItems().get(0).getId());
+        assertNotNull(firstPage.getNextCursor());
+
+        // The cursor must point at the last row we returned, not the extra look-ahead row
+        LeaveCursor cursor = LeaveCursor.decode(firstPage.getNextCursor());
+        assertEquals(2L, cursor.getId());
+        assertEquals(middle.getAppliedAt(), cursor.getAppliedAt());
+
+        // Following the cursor gives the last page, which has no cursor of its own
+        when(leaveRequestRepository.findPage(any(), any(), any(), any(), any(),
+                eq(middle.getAppliedAt()), eq(2L), eq(Limit.of(3))))
+                .thenReturn(new ArrayList<>(List.of(oldest)));
+
+        LeaveRequestPageDto lastPage = leaveService.getAllLeaveRequests(
+                new LeaveRequestFilterDto(), firstPage.getNextCursor(), 2);
+        assertEquals(1, lastPage.getItems().size());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should cap the page size and reject malformed cursors")
+    void shouldBoundPageSizeAndRejectInvalidCursor() {
+        when(leaveRequestRepository.findPage(any(), any(), any(), any(), any(), any(), any(), any(Limit.class)))
+                .thenReturn(new ArrayList<>());
+
+        leaveService.getAllLeaveRequests(new LeaveRequestFilterDto(), null, 10_000);
+
+        // Whatever the client asks for, we never read more than MAX_PAGE_SIZE + 1 rows
+        verify(leaveRequestRepository).findPage(any(), any(), any(), any(), any(), isNull(), isNull(),
+                eq(Limit.of(LeaveService.MAX_PAGE_SIZE + 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> leaveService.getAllLeaveRequests(new LeaveRequestFilterDto(), "not-a-cursor", 10));
+    }
+
+    @Test
+    @DisplayName("Should read the balance through the cache, loading only the balance columns on a miss")
+    void shouldReadBalanceThroughCache() {
+        // Arrange - the cache calls our loader, as it would on a miss
+        when(balanceCache.get(eq("john.doe@company.com"), any()))
+                .thenAnswer(invocation -> invocation.<java.util.function.Function<String, LeaveBalanceResponseDto>>getArgument(1)
+                        .apply("john.doe@company.com"));
+        when(userRepository.findBalanceByEmail("john.doe@company.com"))
+                .thenReturn(Optional.of(new LeaveBalanceResponseDto(20, 10, 5)));
+
+        // Act
+        LeaveBalanceResponseDto balance = leaveService.getLeaveBalance("john.doe@company.com");
+
+        // Assert - no full User row is loaded, and the miss reads in a read-write (primary) transaction
+        assertEquals(20, balance.getAnnualLeaveBalance());
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    // Helper method to create a projected row as it would come back from the database
+    private LeaveResponseDto createLeaveResponse(Long id, LocalDateTime appliedAt) {
+        return new LeaveResponseDto(id, testUser.getName(), testUser.getEmail(), LocalDate.now().plusDays(1),
+                LocalDate.now().plusDays(2), "Reason", LeaveType.CASUAL, LeaveStatus.PENDING, appliedAt);
     }
 }
@@ -0,0 +1,96 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticLockRetryExecutorTest {
+
+    // A mocked transaction manager is enough: TransactionTemplate just calls begin, the action and commit
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OptimisticLockRetryExecutor retryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(retryExecutor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retryExecutor, "baseBackoffMs", 1L);
+        ReflectionTestUtils.setField(retryExecutor, "maxBackoffMs", 5L);
+    }
+
+    @Test
+    @DisplayName("Should retry a version conflict in a fresh transaction and count the retry")
+    void shouldRetryConflictAndSucceed() {
+        // Arrange - the first attempt loses the race, the second one commits
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        String result = retryExecutor.inTransaction("applyLeave", () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException("User", 1L);
+            }
+            return "saved";
+        });
+
+        // Assert
+        assertEquals("saved", result);
+        assertEquals(2, calls.get());
+        verify(transactionManager, times(2)).getTransaction(any());
+        assertEquals(1.0, meterRegistry.counter("leave.optimistic.retries", "operation", "applyLeave").count());
+        assertEquals(0.0, meterRegistry.counter("leave.optimistic.giveups", "operation", "applyLeave").count());
+    }
+
+    @Test
+    @DisplayName("Should give up after the configured attempts with a ConcurrentUpdateException")
+    void shouldGiveUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ConcurrentUpdateException.class, () -> retryExecutor.inTransaction("updateLeaveBalance", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("User", 1L);
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.counter("leave.optimistic.retries", "operation", "updateLeaveBalance").count());
+        assertEquals(1.0, meterRegistry.counter("leave.optimistic.giveups", "operation", "updateLeaveBalance").count());
+    }
+
+    @Test
+    @DisplayName("Should not retry failures that are not version conflicts")
+    void shouldNotRetryOtherFailures() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retryExecutor.inTransaction("cancelLeaveRequest", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, calls.get());
+        verify(transactionManager, never()).commit(any());
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.response.ApiResponse;
+import com.example.leavemanagement.model.LeaveRequest;
+import com.example.leavemanagement.model.LeaveStatus;
+import com.example.leavemanagement.model.LeaveType;
+import com.example.leavemanagement.model.OutboxMessage;
+import com.example.leavemanagement.model.OutboxStatus;
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.repository.LeaveRequestRepository;
+import com.example.leavemanagement.repository.OutboxMessageRepository;
+import com.example.leavemanagement.repository.UserRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The real outbox and dispatcher against H2, delivering over SMTP to an in-process GreenMail server.
+// The dispatch cron is off in tests, so nothing is sent until a test calls dispatch()
+@SpringBootTest(properties = {
+        "spring.mail.host=127.0.0.1",
+        "spring.mail.port=3025",
+        "leave.notifications.admin-recipients=hr@company.com, payroll@company.com",
+        "leave.outbox.batch-size=2",
+        "leave.outbox.max-attempts=2"
+})
+@ActiveProfiles("test")
+class OutboxDispatcherTest {
+
+    private static final String EMAIL = "outbox@company.com";
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User employee;
+
+    @BeforeEach
+    void setUp() {
+        outboxMessageRepository.deleteAll();
+        leaveRequestRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        employee = userRepository.save(new User(null, "Olive Outbox", EMAIL, "hash", Role.EMPLOYEE, null));
+    }
+
+    @Test
+    @DisplayName("Should write the mail with the approval and send it only when the dispatcher runs")
+    void shouldDeliverApprovalThroughOutbox() throws Exception {
+        // Arrange
+        LeaveRequest leave = pendingLeave(1);
+
+        // Act
+        leaveService.approveLeaveRequest(leave.getId());
+
+        // Assert - committed with the approval, nothing sent on the request path
+        OutboxMessage queued = onlyMessage();
+        assertEquals(OutboxStatus.PENDING, queued.getStatus());
+        assertEquals(EMAIL, queued.getRecipient());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+
+        // Act
+        assertEquals(1, outboxDispatcher.dispatch());
+
+        // Assert
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("Your leave request #" + leave.getId() + " was approved", received[0].getSubject());
+        assertEquals(EMAIL, received[0].getAllRecipients()[0].toString());
+        assertTrue(GreenMailUtil.getBody(received[0]).contains("Hi Olive Outbox"));
+        OutboxMessage sent = onlyMessage();
+        assertEquals(OutboxStatus.SENT, sent.getStatus());
+        assertNotNull(sent.getSentAt());
+        assertNull(sent.getClaimToken());
+    }
+
+    @Test
+    @DisplayName("Should queue and deliver a rejection whose reason is longer than a varchar column")
+    void shouldDeliverRejectionWithLongReason() throws Exception {
+        // Arrange - the API caps the reason, but the body must not depend on that
+        LeaveRequest leave = pendingLeave(1);
+        String reason = "x".repeat(5000);
+
+        // Act
+        ApiResponse response = leaveService.rejectLeaveRequest(leave.getId(), reason);
+
+        // Assert
+        assertTrue(response.getSuccess());
+        assertTrue(onlyMessage().getBody().contains(reason));
+        assertEquals(1, outboxDispatcher.dispatch());
+        assertTrue(GreenMailUtil.getBody(greenMail.getReceivedMessages()[0]).contains("Reason: x"));
+        assertEquals(OutboxStatus.SENT, onlyMessage().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should drain more messages than one batch holds in a single run")
+    void shouldDrainInBatches() throws Exception {
+        // Arrange - one rejection for the employee, and a cancellation for each of the two HR mailboxes
+        LeaveRequest rejected = pendingLeave(1);
+        LeaveRequest cancelled = pendingLeave(2);
+        leaveService.rejectLeaveRequest(rejected.getId(), "Team offsite that week");
+        leaveService.cancelLeaveRequest(cancelled.getId(), EMAIL);
+
+        // Act - batch size is 2
+        int handled = outboxDispatcher.dispatch();
+
+        // Assert
+        assertEquals(3, handled);
+        List<String> recipients = Arrays.stream(greenMail.getReceivedMessages())
+                .map(message -> {
+                    try {
+                        return message.getAllRecipients()[0].toString();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .sorted()
+                .toList();
+        assertEquals(List.of("hr@company.com", EMAIL, "payroll@company.com"), recipients);
+        assertTrue(outboxMessageRepository.findAll().stream().allMatch(m -> m.getStatus() == OutboxStatus.SENT));
+    }
+
+    @Test
+    @DisplayName("Should back off after a failed delivery and dead-letter after the last attempt")
+    void shouldRetryWithBackoffThenDeadLetter() {
+        // Arrange
+        leaveService.approveLeaveRequest(pendingLeave(1).getId());
+        greenMail.stop();
+
+        // Act - first attempt fails
+        outboxDispatcher.dispatch();
+
+        // Assert - rescheduled 30s out (base backoff), not picked up again straight away
+        OutboxMessage retrying = onlyMessage();
+        assertEquals(OutboxStatus.PENDING, retrying.getStatus());
+        assertEquals(1, retrying.getAttempts());
+        assertNotNull(retrying.getLastError());
+        assertTrue(retrying.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+        assertEquals(0, outboxDispatcher.dispatch());
+
+        // Act - the backoff has elapsed and the second (last) attempt fails too
+        jdbcTemplate.update("UPDATE outbox_messages SET next_attempt_at = ?", LocalDateTime.now().minusSeconds(1));
+        outboxDispatcher.dispatch();
+
+        // Assert
+        OutboxMessage dead = onlyMessage();
+        assertEquals(OutboxStatus.DEAD, dead.getStatus());
+        assertEquals(2, dead.getAttempts());
+        assertEquals(0, outboxDispatcher.dispatch());
+    }
+
+    @Test
+    @DisplayName("Should double the backoff per attempt up to the cap")
+    void shouldCapExponentialBackoff() {
+        assertEquals(Duration.ofSeconds(30), outboxDispatcher.backoff(1));
+        assertEquals(Duration.ofMinutes(1), outboxDispatcher.backoff(2));
+        assertEquals(Duration.ofMinutes(4), outboxDispatcher.backoff(4));
+        assertEquals(Duration.ofHours(1), outboxDispatcher.backoff(30));
+    }
+
+    @Test
+    @DisplayName("Should only write to the outbox inside the transaction of the change")
+    void shouldRequireSurroundingTransaction() {
+        // Arrange
+        LeaveRequest leave = pendingLeave(1);
+
+        // Act & Assert - a refused approval writes nothing, and a call outside a transaction is refused
+        leaveService.approveLeaveRequest(leave.getId());
+        leaveService.approveLeaveRequest(leave.getId());
+        assertEquals(1, outboxMessageRepository.count());
+        assertThrows(IllegalTransactionStateException.class,
+                () -> notificationOutbox.leaveDecided(leave, EMAIL, "Olive Outbox", LeaveStatus.APPROVED, null));
+    }
+
+    private LeaveRequest pendingLeave(int weeksAhead) {
+        LocalDate monday = LocalDate.now().plusWeeks(weeksAhead).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        LeaveRequest leave = new LeaveRequest(employee, monday, monday, "Outbox test", LeaveType.ANNUAL);
+        leave.setWorkingDays(1);
+        return leaveRequestRepository.save(leave);
+    }
+
+    private OutboxMessage onlyMessage() {
+        List<OutboxMessage> messages = outboxMessageRepository.findAll();
+        assertEquals(1, messages.size());
+        return messages.get(0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripedUserLockTest {
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private StripedUserLock stripedUserLock;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stripedUserLock, "requestedStripes", 100);
+        ReflectionTestUtils.setField(stripedUserLock, "waitTimeoutMs", 50L);
+        stripedUserLock.init();
+    }
+
+    @Test
+    @DisplayName("Should round the stripe count up to a power of two and map a user to a fixed stripe")
+    void shouldUseFixedPowerOfTwoStripes() {
+        assertEquals(128, stripedUserLock.stripeCount());
+        assertEquals(stripedUserLock.stripeFor("john.doe@company.com"),
+                stripedUserLock.stripeFor("john.doe@company.com"));
+    }
+
+    @Test
+    @DisplayName("Should record contention on the hottest stripe and time out a waiter that waits too long")
+    void shouldReportContentionAndTimeOut() throws Exception {
+        // Arrange - a background thread holds the user's stripe until we release it
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> stripedUserLock.withLock("busy@company.com", () -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        held.await();
+
+        // Act & Assert - a second caller for the same user gives up after the 50ms timeout
+        assertThrows(ConcurrentUpdateException.class,
+                () -> stripedUserLock.withLock("busy@company.com", () -> "never runs"));
+        release.countDown();
+        holder.join();
+
+        List<Map<String, Object>> hottest = stripedUserLock.hottestStripes(5);
+        assertEquals(1, hottest.size());
+        assertEquals(stripedUserLock.stripeFor("busy@company.com"), hottest.get(0).get("stripe"));
+        assertEquals(1L, hottest.get(0).get("contended"));
+        // Both acquisitions are timed: the holder's uncontended one and the waiter's
+        assertEquals(2L, meterRegistry.timer("leave.lock.wait").count());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.config.ReplicaLagTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserChangeVersionsTest {
+
+    private UserChangeVersions versions;
+
+    @BeforeEach
+    void setUp() {
+        versions = new UserChangeVersions();
+        ReflectionTestUtils.setField(versions, "maxSize", 1000L);
+        ReflectionTestUtils.setField(versions, "ttl", Duration.ofMinutes(10));
+        ReflectionTestUtils.invokeMethod(versions, "init");
+    }
+
+    @Test
+    @DisplayName("Should keep the same ETag until the user's data changes")
+    void shouldBumpOnlyTheChangedUser() {
+        // Arrange
+        String john = versions.etag("john@company.com");
+        String jane = versions.etag("jane@company.com");
+
+        // Act
+        versions.bump("john@company.com");
+
+        // Assert
+        assertNotEquals(john, versions.etag("john@company.com"));
+        assertEquals(jane, versions.etag("jane@company.com"));
+        assertTrue(john.startsWith("\"") && john.endsWith("\""), "strong ETags are quoted, without W/");
+    }
+
+    @Test
+    @DisplayName("Should move every user forward after a bulk change, never back")
+    void shouldBumpEveryoneAfterBulkChange() {
+        // Arrange
+        long before = versions.current("john@company.com");
+
+        // Act - e.g. the monthly accrual
+        versions.bumpAll();
+
+        // Assert
+        assertTrue(versions.current("john@company.com") > before);
+    }
+
+    @Test
+    @DisplayName("Should keep the changed user's reads on the primary, whoever made the change")
+    void shouldRouteChangedUsersToPrimary() {
+        // Arrange
+        ReplicaLagTracker replicaLagTracker = mock(ReplicaLagTracker.class);
+        ReflectionTestUtils.setField(versions, "replicaLagTracker", replicaLagTracker);
+
+        // Act - e.g. HR approving John's leave, then the monthly accrual
+        versions.bump("john@company.com");
+        versions.bumpAll();
+
+        // Assert
+        verify(replicaLagTracker).recordWrite("john@company.com");
+        verify(replicaLagTracker).recordBulkWrite();
+    }
+
+    @Test
+    @DisplayName("Should never match an ETag handed out before a restart")
+    void shouldNotReuseEtagsAcrossRestarts() {
+        // Arrange
+        UserChangeVersions restarted = new UserChangeVersions();
+        ReflectionTestUtils.setField(restarted, "maxSize", 1000L);
+        ReflectionTestUtils.setField(restarted, "ttl", Duration.ofMinutes(10));
+        ReflectionTestUtils.invokeMethod(restarted, "init");
+
+        // Act & Assert - both start counting at 1
+        assertNotEquals(versions.etag("john@company.com"), restarted.etag("john@company.com"));
+    }
+}
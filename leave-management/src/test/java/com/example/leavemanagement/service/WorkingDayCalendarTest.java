@@ -0,0 +1,104 @@
+package com.example.leavemanagement.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.StringReader;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkingDayCalendarTest {
+
+    // Monday
+    private static final LocalDate MONDAY = LocalDate.of(2030, 3, 4);
+
+    private WorkingDayCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        calendar = newCalendar(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY),
+                "classpath:holidays/test-holidays.csv", "classpath:holidays/test-holidays.ics");
+    }
+
+    @Test
+    @DisplayName("Should skip weekends and holidays from both CSV and ICS files")
+    void shouldSkipWeekendsAndHolidays() {
+        // Mon-Fri with a Wednesday holiday: 4 working days; the Saturday holiday changes nothing
+        assertEquals(4, calendar.countWorkingDays(MONDAY, MONDAY.plusDays(6)));
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2030, 3, 6)));
+        assertEquals(0, calendar.countWorkingDays(LocalDate.of(2030, 3, 9), LocalDate.of(2030, 3, 10)));
+
+        // Christmas shutdown 24-26 Dec (ICS, DTEND exclusive) and New Year 2031, across the year boundary:
+        // 23 Dec (Mon) .. 3 Jan (Fri) leaves 23, 27, 30, 31 Dec and 2, 3 Jan
+        assertEquals(6, calendar.countWorkingDays(LocalDate.of(2030, 12, 23), LocalDate.of(2031, 1, 3)));
+
+        // Empty and reversed ranges
+        assertEquals(1, calendar.countWorkingDays(MONDAY, MONDAY));
+        assertEquals(0, calendar.countWorkingDays(MONDAY.plusDays(1), MONDAY));
+    }
+
+    @Test
+    @DisplayName("Should agree with a day-by-day count on random ranges, including multi-year ones")
+    void shouldMatchNaiveCount() {
+        Set<LocalDate> holidays = Set.of(LocalDate.of(2030, 3, 6), LocalDate.of(2030, 3, 9),
+                LocalDate.of(2030, 12, 24), LocalDate.of(2030, 12, 25), LocalDate.of(2030, 12, 26),
+                LocalDate.of(2031, 1, 1));
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate start = LocalDate.of(2028, 1, 1).plusDays(random.nextInt(2_000));
+            LocalDate end = start.plusDays(random.nextInt(900));
+            int expected = 0;
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                DayOfWeek dayOfWeek = day.getDayOfWeek();
+                if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && !holidays.contains(day)) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, calendar.countWorkingDays(start, end), start + " to " + end);
+        }
+    }
+
+    @Test
+    @DisplayName("Should honour a custom weekend and a replacement WeekendRule bean")
+    void shouldUsePluggableWeekend() {
+        // Friday/Saturday weekend: Mon 4 .. Sun 10 March has Mon-Thu and Sun, minus the Wednesday holiday
+        WorkingDayCalendar fridaySaturday = newCalendar(EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY),
+                "classpath:holidays/test-holidays.csv");
+        assertEquals(4, fridaySaturday.countWorkingDays(MONDAY, MONDAY.plusDays(6)));
+
+        // A WeekendRule bean replaces the configured days entirely
+        WorkingDayCalendar noWeekends = new WorkingDayCalendar();
+        ReflectionTestUtils.setField(noWeekends, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(noWeekends, "weekendRule", (WeekendRule) date -> false);
+        ReflectionTestUtils.setField(noWeekends, "weekendDays", EnumSet.of(DayOfWeek.SUNDAY));
+        ReflectionTestUtils.setField(noWeekends, "holidayFiles", new String[0]);
+        noWeekends.init();
+        assertEquals(7, noWeekends.countWorkingDays(MONDAY, MONDAY.plusDays(6)));
+    }
+
+    @Test
+    @DisplayName("Should fail fast on a malformed holiday file")
+    void shouldRejectMalformedCsv() {
+        String csv = "2030-01-01,Ok\nnot-a-date,Broken\n";
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> HolidayFileParser.parse("bad.csv", new StringReader(csv)));
+        assertTrue(exception.getMessage().contains("line 2"));
+    }
+
+    private WorkingDayCalendar newCalendar(Set<DayOfWeek> weekendDays, String... holidayFiles) {
+        WorkingDayCalendar workingDayCalendar = new WorkingDayCalendar();
+        ReflectionTestUtils.setField(workingDayCalendar, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(workingDayCalendar, "weekendDays", weekendDays);
+        ReflectionTestUtils.setField(workingDayCalendar, "holidayFiles", holidayFiles);
+        workingDayCalendar.init();
+        return workingDayCalendar;
+    }
+}
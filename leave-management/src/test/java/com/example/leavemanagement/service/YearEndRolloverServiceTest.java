@@ -0,0 +1,145 @@
+package com.example.leavemanagement.service;
+
+import com.example.leavemanagement.dto.leave.LeaveRolloverResultDto;
+import com.example.leavemanagement.model.Role;
+import com.example.leavemanagement.model.User;
+import com.example.leavemanagement.repository.LeaveRequestRepository;
+import com.example.leavemanagement.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Grant policy (accrual is off in the test profile): annual carries over up to 5 days and gets 20 new,
+// sick and casual reset to 10 and 5
+@SpringBootTest(properties = {
+        "leave.rollover.annual-grant=20",
+        "leave.rollover.sick-grant=10",
+        "leave.rollover.casual-grant=5"
+})
+@ActiveProfiles("test")
+class YearEndRolloverServiceTest {
+
+    // The latest fiscal year that has ended
+    private static final int LAST_YEAR = Year.now().getValue() - 1;
+
+    @Autowired
+    private YearEndRolloverService yearEndRolloverService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @TempDir
+    Path reportDir;
+
+    private User saver;
+    private User spender;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(yearEndRolloverService, "reportDir", reportDir.toString());
+        leaveRequestRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // Arrange - one user with unused days to carry over, one who spent nearly everything
+        saver = createUser("saver@company.com", 12, 7, 4);
+        spender = createUser("spender@company.com", 2, 0, 1);
+        leaveLedgerService.backfillOpeningEntries();
+    }
+
+    @Test
+    @DisplayName("Dry run should report the diff and leave balances untouched")
+    void dryRunShouldNotCommit() throws Exception {
+        // Act
+        LeaveRolloverResultDto result = yearEndRolloverService.rollover(LAST_YEAR, true);
+
+        // Assert
+        assertTrue(result.isDryRun());
+        assertEquals(2, result.getUsersAffected());
+        assertEquals(12, userRepository.findById(saver.getId()).get().getAnnualLeaveBalance());
+        // Nothing but the report was written
+        assertEquals(12, leaveLedgerService.balanceAsOf(saver.getId(), LocalDate.now()).getAnnualLeaveBalance());
+
+        List<String> report = Files.readAllLines(Path.of(result.getReportPath()));
+        assertEquals(3, report.size());
+        assertEquals(saver.getId() + ",saver@company.com,12,25,7,10,4,5", report.get(1));
+        assertEquals(spender.getId() + ",spender@company.com,2,22,0,10,1,5", report.get(2));
+    }
+
+    @Test
+    @DisplayName("Real run should apply caps and grants once per fiscal year")
+    void rolloverShouldApplyOnce() throws Exception {
+        // Act
+        LeaveRolloverResultDto result = yearEndRolloverService.rollover(LAST_YEAR, false);
+
+        // Assert - the committed balances match the report
+        assertEquals(2, result.getUsersAffected());
+        User rolled = userRepository.findById(saver.getId()).get();
+        assertEquals(25, rolled.getAnnualLeaveBalance());
+        assertEquals(10, rolled.getSickLeaveBalance());
+        assertEquals(5, rolled.getCasualLeaveBalance());
+        assertEquals(LAST_YEAR, rolled.getLastRolloverYear());
+        assertEquals(25, leaveLedgerService.balanceAsOf(saver.getId(), LocalDate.now()).getAnnualLeaveBalance());
+        assertEquals(10, leaveLedgerService.balanceAsOf(spender.getId(), LocalDate.now()).getSickLeaveBalance());
+
+        // Running the same year again does nothing, and the report says so
+        LeaveRolloverResultDto again = yearEndRolloverService.rollover(LAST_YEAR, false);
+        assertEquals(0, again.getUsersAffected());
+        assertEquals(1, Files.readAllLines(Path.of(again.getReportPath())).size());
+        assertEquals(25, userRepository.findById(saver.getId()).get().getAnnualLeaveBalance());
+    }
+
+    @Test
+    @DisplayName("Should refuse to close a fiscal year that has not ended")
+    void shouldRejectFutureFiscalYear() {
+        // Act & Assert - neither for real nor as a dry run
+        assertThrows(IllegalArgumentException.class, () -> yearEndRolloverService.rollover(LAST_YEAR + 1, false));
+        assertThrows(IllegalArgumentException.class, () -> yearEndRolloverService.rollover(LAST_YEAR + 5, true));
+
+        // Nothing was touched
+        User untouched = userRepository.findById(saver.getId()).get();
+        assertEquals(12, untouched.getAnnualLeaveBalance());
+        assertNull(untouched.getLastRolloverYear());
+    }
+
+    @Test
+    @DisplayName("Grants should be refused while the monthly accrual is enabled")
+    void grantsShouldNotStackWithAccrual() {
+        // Arrange
+        YearEndRolloverService service = new YearEndRolloverService();
+        ReflectionTestUtils.setField(service, "annualGrant", 20);
+        ReflectionTestUtils.setField(service, "accrualCron", "0 0 1 1 * *");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, service::checkGrantsAgainstAccrual);
+
+        ReflectionTestUtils.setField(service, "annualGrant", 0);
+        assertDoesNotThrow(service::checkGrantsAgainstAccrual);
+    }
+
+    private User createUser(String email, int annual, int sick, int casual) {
+        User user = new User(null, email, email, "hash", Role.EMPLOYEE, null);
+        user.setAnnualLeaveBalance(annual);
+        user.setSickLeaveBalance(sick);
+        user.setCasualLeaveBalance(casual);
+        return userRepository.save(user);
+    }
+}